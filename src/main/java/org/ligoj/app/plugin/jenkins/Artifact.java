@@ -0,0 +1,24 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Archived artifact of a Jenkins build.
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Artifact {
+
+	private String fileName;
+
+	/**
+	 * Path relative to the artifacts root of the build, used to download it.
+	 */
+	private String relativePath;
+}
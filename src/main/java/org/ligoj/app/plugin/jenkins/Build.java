@@ -0,0 +1,33 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Jenkins build summary.
+ */
+@Getter
+@Setter
+public class Build {
+
+	private int number;
+
+	/**
+	 * Build result, such as <code>SUCCESS</code>, <code>UNSTABLE</code> or <code>FAILURE</code>. May be
+	 * <code>null</code>.
+	 */
+	private String result;
+
+	/**
+	 * Duration in milliseconds.
+	 */
+	private long duration;
+
+	/**
+	 * Start timestamp.
+	 */
+	private long timestamp;
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer of the last completed builds of a job in the build number order, stored in primitive arrays.
+ * The oldest builds are overwritten.
+ */
+public class BuildHistory {
+
+	/**
+	 * Known build results, stored by index.
+	 */
+	private static final List<String> RESULTS = List.of("SUCCESS", "UNSTABLE", "FAILURE", "NOT_BUILT", "ABORTED");
+
+	private final int[] numbers;
+	private final byte[] results;
+	private final long[] durations;
+	private final long[] timestamps;
+
+	/**
+	 * Index of the next written build.
+	 */
+	private int head;
+
+	/**
+	 * Amount of stored builds.
+	 */
+	@Getter
+	private int size;
+
+	/**
+	 * The time in milliseconds of the last check of the new builds.
+	 */
+	@Getter
+	private long checked;
+
+	/**
+	 * When <code>true</code>, a build has completed since the last check started, and the next read checks the new
+	 * builds without waiting for the TTL.
+	 */
+	@Getter
+	@Setter
+	private volatile boolean notified;
+
+	/**
+	 * The number of the oldest build still running at the last check, older than the last stored build. <code>0</code>
+	 * when there is none.
+	 */
+	@Getter
+	@Setter
+	private int running;
+
+	/**
+	 * Constructor with the capacity.
+	 *
+	 * @param capacity The maximum stored builds.
+	 */
+	public BuildHistory(final int capacity) {
+		numbers = new int[capacity];
+		results = new byte[capacity];
+		durations = new long[capacity];
+		timestamps = new long[capacity];
+	}
+
+	/**
+	 * Return the maximum stored builds.
+	 *
+	 * @return The maximum stored builds.
+	 */
+	public int getCapacity() {
+		return numbers.length;
+	}
+
+	/**
+	 * Return the number of the last stored build, the high-water mark.
+	 *
+	 * @return The number of the last stored build, <code>0</code> when empty.
+	 */
+	public int getLastNumber() {
+		return size == 0 ? 0 : numbers[toIndex(0)];
+	}
+
+	/**
+	 * Return the array index of a stored build.
+	 *
+	 * @param recent The build position, <code>0</code> for the most recent one.
+	 */
+	private int toIndex(final int recent) {
+		return (head - 1 - recent + 2 * numbers.length) % numbers.length;
+	}
+
+	/**
+	 * Add a build in the build number order: a build completed after a more recent one is inserted before it. A build
+	 * already stored, or older than all the builds of a full history, is ignored.
+	 *
+	 * @param number    The build number.
+	 * @param result    The build result.
+	 * @param duration  The build duration in milliseconds.
+	 * @param timestamp The build start timestamp.
+	 */
+	public void add(final int number, final String result, final long duration, final long timestamp) {
+		var shift = 0;
+		while (shift < size && numbers[toIndex(shift)] > number) {
+			shift++;
+		}
+		if (shift < size && numbers[toIndex(shift)] == number || shift == numbers.length) {
+			return;
+		}
+
+		// Move the more recent builds one slot forward
+		for (var i = 0; i < shift; i++) {
+			final var from = toIndex(i);
+			final var to = (from + 1) % numbers.length;
+			numbers[to] = numbers[from];
+			results[to] = results[from];
+			durations[to] = durations[from];
+			timestamps[to] = timestamps[from];
+		}
+		final var index = (head - shift + numbers.length) % numbers.length;
+		numbers[index] = number;
+		results[index] = (byte) RESULTS.indexOf(result);
+		durations[index] = duration;
+		timestamps[index] = timestamp;
+		head = (head + 1) % numbers.length;
+		size = Math.min(size + 1, numbers.length);
+	}
+
+	/**
+	 * Record a check of the new builds.
+	 *
+	 * @param checked The time in milliseconds of the check.
+	 */
+	public void setChecked(final long checked) {
+		this.checked = checked;
+	}
+
+	/**
+	 * Return the stored builds, the most recent first.
+	 *
+	 * @return The stored builds.
+	 */
+	public List<Build> toList() {
+		final var list = new ArrayList<Build>(size);
+		for (var i = 1; i <= size; i++) {
+			final var index = (head - i + numbers.length) % numbers.length;
+			final var build = new Build();
+			build.setNumber(numbers[index]);
+			build.setResult(results[index] < 0 ? null : RESULTS.get(results[index]));
+			build.setDuration(durations[index]);
+			build.setTimestamp(timestamps[index]);
+			list.add(build);
+		}
+		return list;
+	}
+}
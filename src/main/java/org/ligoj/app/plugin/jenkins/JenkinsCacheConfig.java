@@ -0,0 +1,71 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.hazelcast.cache.HazelcastCacheManager;
+import com.hazelcast.config.CacheConfig;
+import org.ligoj.bootstrap.resource.system.cache.CacheManagerAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Jenkins caches shared by the cluster. The values are stored as bytes encoded by the owner of each cache, and the
+ * freshness of the entries is checked by their owner: the expiry policies only bound the retention, in seconds with the
+ * <code>service-build-jenkins-cache-*-ttl</code> application properties.
+ */
+@Component
+public class JenkinsCacheConfig implements CacheManagerAware {
+
+	/**
+	 * Job tree snapshots, by node and view.
+	 */
+	public static final String TREES = "jenkins-trees";
+
+	/**
+	 * Job statuses, by Jenkins base URL and job.
+	 */
+	public static final String JOBS = "jenkins-jobs";
+
+	/**
+	 * Jenkins versions, by Jenkins base URL and user.
+	 */
+	public static final String VERSIONS = "jenkins-versions";
+
+	/**
+	 * Retention in seconds of the job trees.
+	 */
+	@Value("${service-build-jenkins-cache-trees-ttl:86400}")
+	private long treesTtl = TimeUnit.DAYS.toSeconds(1);
+
+	/**
+	 * Retention in seconds of the job statuses.
+	 */
+	@Value("${service-build-jenkins-cache-jobs-ttl:7200}")
+	private long jobsTtl = TimeUnit.HOURS.toSeconds(2);
+
+	/**
+	 * Retention in seconds of the Jenkins versions.
+	 */
+	@Value("${service-build-jenkins-cache-versions-ttl:3600}")
+	private long versionsTtl = TimeUnit.HOURS.toSeconds(1);
+
+	@Override
+	public void onCreate(final HazelcastCacheManager cacheManager, final Function<String, CacheConfig<?, ?>> provider) {
+		create(cacheManager, provider, TREES, treesTtl);
+		create(cacheManager, provider, JOBS, jobsTtl);
+		create(cacheManager, provider, VERSIONS, versionsTtl);
+	}
+
+	private void create(final HazelcastCacheManager cacheManager, final Function<String, CacheConfig<?, ?>> provider,
+			final String name, final long ttl) {
+		final var config = provider.apply(name);
+		config.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, ttl)));
+		cacheManager.createCache(name, config);
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import org.apache.commons.lang3.StringUtils;
+import org.ligoj.bootstrap.core.curl.CurlRequest;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Flight Recorder event of a Jenkins operation. The HTTP requests and the parsing performed by the current thread
+ * during the operation are accumulated in this event, and in the enclosing operation. When the recording of this event
+ * is disabled, nothing is measured. The slow call threshold is the standard <code>threshold</code> setting of this
+ * event, for sample <code>jfr configure org.ligoj.app.plugin.jenkins.Call#threshold=500ms</code>.
+ */
+@Name("org.ligoj.app.plugin.jenkins.Call")
+@Label("Jenkins Call")
+@Category({"Ligoj", "Jenkins"})
+@Description("Jenkins operation with its network and parsing times")
+@StackTrace(false)
+@Threshold("20 ms")
+public class JenkinsCallEvent extends Event implements AutoCloseable {
+
+	/**
+	 * The recorded operation of the current thread.
+	 */
+	private static final ThreadLocal<JenkinsCallEvent> CURRENT = new ThreadLocal<>();
+
+	@Label("Operation")
+	private String operation;
+
+	@Label("Node")
+	@Description("Node identifier or Jenkins base URL")
+	private String node;
+
+	@Label("URL")
+	@Description("URL of the last request, without query")
+	private String url;
+
+	@Label("Status")
+	@Description("HTTP status of the last request")
+	private int status;
+
+	@Label("Requests")
+	private int requests;
+
+	@Label("Bytes")
+	@Description("Size of the response bodies")
+	@DataAmount
+	private long bytes;
+
+	@Label("Jobs")
+	@Description("Parsed jobs")
+	private int jobs;
+
+	@Label("Network")
+	@Timespan
+	private long network;
+
+	@Label("Parsing")
+	@Timespan
+	private long parsing;
+
+	private transient JenkinsCallEvent parent;
+
+	/**
+	 * Start the recording of an operation.
+	 *
+	 * @param operation The operation name.
+	 * @param node      The node identifier, or the Jenkins base URL when only the parameters are known.
+	 * @return The started event to close.
+	 */
+	public static JenkinsCallEvent begin(final String operation, final String node) {
+		final var event = new JenkinsCallEvent();
+		if (event.isEnabled()) {
+			event.operation = operation;
+			event.node = node;
+			event.parent = CURRENT.get();
+			CURRENT.set(event);
+			event.begin();
+		}
+		return event;
+	}
+
+	/**
+	 * Return a task recording its HTTP requests in the current operation, to be run by another thread.
+	 *
+	 * @param task The task to run.
+	 * @param <T>  The result type.
+	 * @return The task inheriting the current operation.
+	 */
+	public static <T> Callable<T> inherit(final Callable<T> task) {
+		final var event = CURRENT.get();
+		if (event == null) {
+			return task;
+		}
+		return () -> {
+			CURRENT.set(event);
+			try {
+				return task.call();
+			} finally {
+				CURRENT.remove();
+			}
+		};
+	}
+
+	/**
+	 * Record a processed HTTP request in the current operation.
+	 *
+	 * @param request The processed request.
+	 * @param nanos   The time spent in nanoseconds.
+	 */
+	public static void onRequest(final CurlRequest request, final long nanos) {
+		final var event = CURRENT.get();
+		if (event != null) {
+			// The hedged requests are concurrent
+			synchronized (event) {
+				event.url = StringUtils.substringBefore(request.getUrl(), "?");
+				event.status = request.getStatus();
+				event.requests++;
+				event.bytes += StringUtils.length(request.getResponse());
+				event.network += nanos;
+			}
+		}
+	}
+
+	/**
+	 * Record a parsing in the current operation.
+	 *
+	 * @param jobs  The parsed jobs.
+	 * @param nanos The time spent in nanoseconds.
+	 */
+	public static void onParsed(final int jobs, final long nanos) {
+		final var event = CURRENT.get();
+		if (event != null) {
+			synchronized (event) {
+				event.jobs += jobs;
+				event.parsing += nanos;
+			}
+		}
+	}
+
+	/**
+	 * End the recording of this operation, and add its measures to the enclosing operation. The operations run by the
+	 * inheriting threads are closed concurrently: the measures are merged under the lock of each event, always taken
+	 * from the inner to the enclosing operation.
+	 */
+	@Override
+	public void close() {
+		if (operation == null) {
+			// Not recorded
+			return;
+		}
+		CURRENT.set(parent);
+		synchronized (this) {
+			if (parent != null) {
+				synchronized (parent) {
+					if (requests > 0) {
+						parent.url = url;
+						parent.status = status;
+					}
+					parent.requests += requests;
+					parent.bytes += bytes;
+					parent.jobs += jobs;
+					parent.network += network;
+					parent.parsing += parsing;
+				}
+			}
+			end();
+			if (shouldCommit()) {
+				commit();
+			}
+		}
+	}
+}
@@ -3,20 +3,81 @@
  */
 package org.ligoj.app.plugin.jenkins;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
 import org.ligoj.bootstrap.core.curl.CurlProcessor;
+import org.ligoj.bootstrap.core.curl.CurlRequest;
 import org.ligoj.bootstrap.core.curl.HttpResponseCallback;
 import org.ligoj.bootstrap.core.curl.SessionAuthCurlProcessor;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
- * Jenkins processor.
+ * Jenkins processor. The <code>POST</code> requests include the CSRF crumb, bound to the web session it has been
+ * issued for: the crumb is cached per Jenkins instance and user together with its session cookie, and reused with
+ * this session. All requests are subject to the rate limit of the node and recorded in the current
+ * {@link JenkinsCallEvent}.
  */
+@Slf4j
 public class JenkinsCurlProcessor extends SessionAuthCurlProcessor {
 
+	/**
+	 * Crumb bound to a web session.
+	 *
+	 * @param value   The crumb as <code>field:value</code>, empty when there is no crumb issuer.
+	 * @param session The session cookies as <code>name=value</code> pairs, empty without session.
+	 */
+	record Crumb(String value, String session) {
+	}
+
+	/**
+	 * Cached crumbs with their session, keyed by Jenkins base URL and user.
+	 */
+	static final Map<String, Crumb> CRUMBS = new ConcurrentHashMap<>();
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * Callback recording the session cookies set by Jenkins, and delegating to the callback of the current request.
+	 */
+	private static class SessionCallback implements HttpResponseCallback {
+		private final HttpResponseCallback callback;
+		private HttpResponseCallback current;
+		private String session = "";
+
+		private SessionCallback(final HttpResponseCallback callback) {
+			this.callback = callback;
+			this.current = callback;
+		}
+
+		@Override
+		public boolean onResponse(final CurlRequest request, final ClassicHttpResponse response) throws IOException {
+			final var cookies = Arrays.stream(response.getHeaders("Set-Cookie"))
+					.map(h -> StringUtils.substringBefore(h.getValue(), ";").trim()).collect(Collectors.joining("; "));
+			if (!cookies.isEmpty()) {
+				session = cookies;
+			}
+			return current.onResponse(request, response);
+		}
+	}
+
+	private final Map<String, String> parameters;
+
+	private final SessionCallback session;
+
 	/**
 	 * Constructor using parameters set.
-	 * 
+	 *
 	 * @param parameters
 	 *            the Jenkins parameters.
 	 */
@@ -26,14 +87,117 @@ public class JenkinsCurlProcessor extends SessionAuthCurlProcessor {
 
 	/**
 	 * Constructor using parameters set and callback.
-	 * 
+	 *
 	 * @param parameters
 	 *            the Jenkins parameters.
 	 * @param callback
 	 *            Not <code>null</code> {@link HttpResponseCallback} used for each response.
 	 */
 	public JenkinsCurlProcessor(final Map<String, String> parameters, final HttpResponseCallback callback) {
-		super(parameters.get(JenkinsPluginResource.PARAMETER_USER), parameters.get(JenkinsPluginResource.PARAMETER_TOKEN), callback);
+		this(parameters, new SessionCallback(callback));
+	}
+
+	private JenkinsCurlProcessor(final Map<String, String> parameters, final SessionCallback session) {
+		super(parameters.get(JenkinsPluginResource.PARAMETER_USER), parameters.get(JenkinsPluginResource.PARAMETER_TOKEN), session);
+		this.parameters = parameters;
+		this.session = session;
+	}
+
+	@Override
+	protected boolean process(final CurlRequest request) {
+		try {
+			JenkinsRateLimiter.acquire(parameters);
+		} catch (final InterruptedIOException e) {
+			return cancelled(request);
+		}
+		final var start = System.nanoTime();
+		try {
+			return processWithCrumb(request);
+		} catch (final InterruptedIOException e) {
+			return cancelled(request);
+		} finally {
+			JenkinsCallEvent.onRequest(request, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Give up a request cancelled while waiting for the rate limit, without sending it.
+	 */
+	private boolean cancelled(final CurlRequest request) {
+		log.info("Cancelled Jenkins request {} {}", request.getMethod(), request.getUrl());
+		return false;
+	}
+
+	private boolean processWithCrumb(final CurlRequest request) throws InterruptedIOException {
+		final var url = parameters.get(JenkinsPluginResource.PARAMETER_URL);
+		if (!"POST".equalsIgnoreCase(request.getMethod()) || url == null) {
+			return super.process(request);
+		}
+		final var key = Strings.CS.appendIfMissing(url, "/") + "|" + parameters.get(JenkinsPluginResource.PARAMETER_USER);
+		var crumb = CRUMBS.get(key);
+		if (crumb == null || !session.session.isEmpty() && !session.session.equals(crumb.session())) {
+			// No crumb for the session of this processor, the blocking request is out of the cache
+			crumb = getCrumb(url);
+			CRUMBS.putIfAbsent(key, crumb);
+		}
+		addCrumb(request, crumb);
+		if (super.process(request)) {
+			return true;
+		}
+		if (request.getStatus() == HttpStatus.SC_FORBIDDEN) {
+			// The crumb or its session may have expired, refresh them once
+			request.getHeaders().remove(HttpHeaders.COOKIE);
+			session.session = "";
+			final var refreshed = getCrumb(url);
+			CRUMBS.put(key, refreshed);
+			if (!refreshed.value().isEmpty()) {
+				addCrumb(request, refreshed);
+				return super.process(request);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the crumb to the request, with its session unless this processor already has its own session.
+	 */
+	private void addCrumb(final CurlRequest request, final Crumb crumb) {
+		if (!crumb.value().isEmpty()) {
+			request.getHeaders().put(StringUtils.substringBefore(crumb.value(), ":"),
+					StringUtils.substringAfter(crumb.value(), ":"));
+		}
+		if (session.session.isEmpty() && !crumb.session().isEmpty()) {
+			// Reuse the session of the crumb
+			request.getHeaders().put(HttpHeaders.COOKIE, crumb.session());
+			session.session = crumb.session();
+		}
+	}
+
+	/**
+	 * Return a new crumb from the crumb issuer of the Jenkins instance, requested within the session of this processor.
+	 *
+	 * @param url The Jenkins base URL.
+	 * @return The crumb with the session it is bound to.
+	 * @throws InterruptedIOException When interrupted while waiting for the rate limit.
+	 */
+	private Crumb getCrumb(final String url) throws InterruptedIOException {
+		JenkinsRateLimiter.acquire(parameters);
+		final var request = new CurlRequest("GET",
+				Strings.CS.appendIfMissing(url, "/") + "crumbIssuer/api/json?tree=crumb,crumbRequestField", null);
+		request.setSaveResponse(true);
+		session.current = CurlProcessor.DEFAULT_CALLBACK;
+		try {
+			if (super.process(request) && request.getResponse() != null) {
+				final var crumb = MAPPER.readTree(request.getResponse());
+				final var field = crumb.path("crumbRequestField").asText();
+				return new Crumb(field.isEmpty() ? "" : field + ":" + crumb.path("crumb").asText(), session.session);
+			}
+		} catch (final IOException e) {
+			log.info("Unreadable crumb of {}: {}", url, e.getMessage());
+		} finally {
+			session.current = session.callback;
+		}
+		return new Crumb("", session.session);
 	}
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache of the last known job states, keyed by Jenkins base URL, job identifier and maximum displayed branches. Entries
+ * are loaded by the status reads and updated by the Jenkins notifications with an atomic replacement. The entries are
+ * shared with the cluster through the {@value JenkinsCacheConfig#JOBS} cache as JSON.
+ */
+@Component
+@Slf4j
+public class JenkinsJobCache {
+
+	/**
+	 * Cached job with its load time.
+	 *
+	 * @param job    The cached job.
+	 * @param loaded The time in milliseconds this job has been loaded from Jenkins.
+	 */
+	record Entry(Job job, long loaded) {
+	}
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * Optional cluster cache manager. When <code>null</code>, the jobs are only cached locally.
+	 */
+	@Autowired(required = false)
+	private CacheManager cacheManager;
+
+	private final Cache local = new ConcurrentMapCache(JenkinsCacheConfig.JOBS);
+
+	private Cache getCache() {
+		return Optional.ofNullable(cacheManager).map(m -> m.getCache(JenkinsCacheConfig.JOBS)).orElse(local);
+	}
+
+	private String toKey(final String url, final String job, final int maxBranches) {
+		return Strings.CS.appendIfMissing(url, "/") + job + "|" + maxBranches;
+	}
+
+	private Entry decode(final String key, final byte[] bytes) {
+		if (bytes == null) {
+			return null;
+		}
+		try {
+			return MAPPER.readValue(bytes, Entry.class);
+		} catch (final IOException e) {
+			log.warn("Unreadable cached Jenkins job {}: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	private byte[] encode(final String key, final Entry entry) {
+		try {
+			return MAPPER.writeValueAsBytes(entry);
+		} catch (final IOException e) {
+			// Not cached
+			log.warn("Unable to cache the Jenkins job {}: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Replace the cached value only when it is still the expected one.
+	 *
+	 * @return <code>true</code> when replaced.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean replace(final Cache cache, final String key, final byte[] expected, final byte[] value) {
+		final var nativeCache = cache.getNativeCache();
+		if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+			return ((ConcurrentMap<Object, Object>) map).replace(key, expected, value);
+		}
+		if (nativeCache instanceof javax.cache.Cache<?, ?> jcache) {
+			return ((javax.cache.Cache<Object, Object>) jcache).replace(key, expected, value);
+		}
+		// No atomic replacement with this cache provider
+		cache.put(key, value);
+		return true;
+	}
+
+	/**
+	 * Update the cached entry, retried while another thread or replica updates it concurrently.
+	 *
+	 * @param key     The entry key.
+	 * @param updater The job updater returning the amount of updated jobs.
+	 * @return The amount of updated jobs.
+	 */
+	private int updateEntry(final String key, final ToIntFunction<Job> updater) {
+		final var cache = getCache();
+		while (true) {
+			final var bytes = cache.get(key, byte[].class);
+			final var entry = decode(key, bytes);
+			if (entry == null) {
+				return 0;
+			}
+			final var count = updater.applyAsInt(entry.job());
+			final var updated = encode(key, entry);
+			if (count == 0 || updated == null || replace(cache, key, bytes, updated)) {
+				return updated == null ? 0 : count;
+			}
+		}
+	}
+
+	/**
+	 * Return the cached job when loaded from Jenkins less than the given duration ago.
+	 *
+	 * @param url         The Jenkins base URL.
+	 * @param job         The job identifier.
+	 * @param maxBranches The maximum displayed branches of the job.
+	 * @param ttl         The maximum age in milliseconds of the cached job.
+	 * @return The cached job or <code>null</code> when missing or expired.
+	 */
+	public Job get(final String url, final String job, final int maxBranches, final long ttl) {
+		final var key = toKey(url, job, maxBranches);
+		final var entry = decode(key, getCache().get(key, byte[].class));
+		if (entry == null || entry.loaded() + ttl < System.currentTimeMillis()) {
+			return null;
+		}
+		return entry.job();
+	}
+
+	/**
+	 * Cache a job freshly loaded from Jenkins.
+	 *
+	 * @param url         The Jenkins base URL.
+	 * @param maxBranches The maximum displayed branches of the job.
+	 * @param job         The job loaded from Jenkins.
+	 */
+	public void put(final String url, final int maxBranches, final Job job) {
+		final var key = toKey(url, job.getId(), maxBranches);
+		Optional.ofNullable(encode(key, new Entry(job, System.currentTimeMillis()))).ifPresent(b -> getCache().put(key, b));
+	}
+
+	/**
+	 * Update the cached job, and the cached parent's branch matching this job. The load times are unchanged.
+	 *
+	 * @param url         The Jenkins base URL.
+	 * @param job         The job identifier, including the parent folders.
+	 * @param maxBranches The maximum displayed branches of the jobs.
+	 * @param updater     The job updater.
+	 * @return The amount of updated jobs.
+	 */
+	public int update(final String url, final String job, final int maxBranches, final Consumer<Job> updater) {
+		var count = updateEntry(toKey(url, job, maxBranches), j -> {
+			updater.accept(j);
+			return 1;
+		});
+		final var parentId = StringUtils.substringBeforeLast(job, "/");
+		if (!parentId.equals(job)) {
+			final var name = StringUtils.substringAfterLast(job, "/");
+			count += updateEntry(toKey(url, parentId, maxBranches), parent -> {
+				var branches = 0;
+				for (final var branch : Objects.requireNonNullElse(parent.getJobs(), List.<Job>of())) {
+					if (Objects.equals(branch.getId(), job) || Objects.equals(branch.getId(), name)) {
+						updater.accept(branch);
+						branches++;
+					}
+				}
+				return branches;
+			});
+		}
+		return count;
+	}
+
+	/**
+	 * Remove a cached job.
+	 *
+	 * @param url         The Jenkins base URL.
+	 * @param job         The job identifier.
+	 * @param maxBranches The maximum displayed branches of the job.
+	 */
+	public void evict(final String url, final String job, final int maxBranches) {
+		getCache().evict(toKey(url, job, maxBranches));
+	}
+
+	/**
+	 * Remove all cached jobs.
+	 */
+	public void clear() {
+		getCache().clear();
+	}
+}
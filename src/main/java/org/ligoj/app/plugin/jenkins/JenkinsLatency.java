@@ -0,0 +1,88 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.apache.commons.lang3.Strings;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent latencies of the successful Jenkins reads, per Jenkins instance.
+ */
+public final class JenkinsLatency {
+
+	/**
+	 * Amount of kept latencies per Jenkins instance.
+	 */
+	static final int CAPACITY = 100;
+
+	/**
+	 * Minimal amount of latencies to compute a percentile.
+	 */
+	static final int MIN_SAMPLES = 20;
+
+	/**
+	 * Latencies by Jenkins base URL.
+	 */
+	static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+
+	private JenkinsLatency() {
+		// Utility class
+	}
+
+	/**
+	 * Ring buffer of the last latencies.
+	 */
+	static class Samples {
+		private final long[] values = new long[CAPACITY];
+		private int size;
+		private int next;
+
+		synchronized void add(final long value) {
+			values[next] = value;
+			next = (next + 1) % CAPACITY;
+			size = Math.min(size + 1, CAPACITY);
+		}
+
+		synchronized long percentile(final int percentile) {
+			if (size < MIN_SAMPLES) {
+				return -1;
+			}
+			final var sorted = Arrays.copyOf(values, size);
+			Arrays.sort(sorted);
+			return sorted[Math.min(size - 1, size * percentile / 100)];
+		}
+	}
+
+	private static String toKey(final String url) {
+		return Strings.CS.appendIfMissing(url, "/");
+	}
+
+	/**
+	 * Record the latency of a successful read.
+	 *
+	 * @param url    The Jenkins base URL.
+	 * @param millis The latency in milliseconds.
+	 */
+	public static void record(final String url, final long millis) {
+		if (url != null) {
+			SAMPLES.computeIfAbsent(toKey(url), k -> new Samples()).add(millis);
+		}
+	}
+
+	/**
+	 * Return the latency percentile of the recent reads.
+	 *
+	 * @param url        The Jenkins base URL.
+	 * @param percentile The percentile, from 1 to 100.
+	 * @return The latency in milliseconds, or <code>-1</code> when the percentile is disabled or there are not enough
+	 * recent reads.
+	 */
+	public static long percentile(final String url, final int percentile) {
+		final var samples = percentile <= 0 || url == null ? null : SAMPLES.get(toKey(url));
+		return samples == null ? -1 : samples.percentile(Math.min(100, percentile));
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Strings;
+import org.ligoj.bootstrap.core.validation.ValidationJsonException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors and queue load of the Jenkins nodes. A node is read from Jenkins on its first access, and then refreshed
+ * in background on a fixed delay: the amount of viewers has no effect on the Jenkins load.
+ */
+@Component
+@Slf4j
+public class JenkinsLoadMonitor implements DisposableBean {
+
+	/**
+	 * Tree-restricted executors query.
+	 */
+	private static final String COMPUTER_QUERY = "computer/api/json?tree=computer[offline,executors[idle]]";
+
+	/**
+	 * Tree-restricted queue query.
+	 */
+	private static final String QUEUE_QUERY = "queue/api/json?tree=items[stuck]";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * Delay in seconds between two refreshes of the monitored nodes.
+	 */
+	@Value("${service-build-jenkins-load-interval:60}")
+	private int interval;
+
+	@Autowired
+	protected JenkinsNodeParameters nodeParameters;
+
+	private final Map<String, NodeLoad> loads = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Return the last known load of a node. The first access reads it from Jenkins and starts its monitoring.
+	 *
+	 * @param node The node identifier.
+	 * @return The last known load.
+	 * @throws IOException When the Jenkins response cannot be parsed.
+	 */
+	public NodeLoad get(final String node) throws IOException {
+		var load = loads.get(node);
+		if (load == null) {
+			load = refresh(node);
+			start();
+		}
+		return load;
+	}
+
+	private synchronized void start() {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				final var thread = new Thread(r, "jenkins-load");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Refresh all monitored nodes. A failed node keeps its previous load.
+	 */
+	protected void refresh() {
+		for (final var node : loads.keySet()) {
+			try {
+				JenkinsRateLimiter.background(() -> refresh(node));
+			} catch (final Exception e) {
+				log.warn("Unable to refresh the Jenkins load of {}: {}", node, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Read the load of a node from Jenkins.
+	 *
+	 * @param node The node identifier.
+	 * @return The new load.
+	 * @throws IOException When the Jenkins response cannot be parsed.
+	 */
+	protected NodeLoad refresh(final String node) throws IOException {
+		final var parameters = nodeParameters.get(node);
+		final var url = Strings.CS.appendIfMissing(parameters.get(JenkinsPluginResource.PARAMETER_URL), "/");
+		final String computers;
+		final String queue;
+		try (var curl = new JenkinsCurlProcessor(parameters)) {
+			computers = curl.get(url + COMPUTER_QUERY);
+			queue = curl.get(url + QUEUE_QUERY);
+		}
+		if (computers == null || queue == null) {
+			throw new ValidationJsonException(JenkinsPluginResource.PARAMETER_URL, "jenkins-connection",
+					parameters.get(JenkinsPluginResource.PARAMETER_URL));
+		}
+		final var load = new NodeLoad();
+		load.setNode(node);
+		for (final var computer : MAPPER.readTree(computers).path("computer")) {
+			load.setAgents(load.getAgents() + 1);
+			if (computer.path("offline").asBoolean()) {
+				load.setOffline(load.getOffline() + 1);
+				continue;
+			}
+			for (final var executor : computer.path("executors")) {
+				load.setExecutors(load.getExecutors() + 1);
+				if (executor.path("idle").asBoolean(true)) {
+					load.setIdle(load.getIdle() + 1);
+				} else {
+					load.setBusy(load.getBusy() + 1);
+				}
+			}
+		}
+		for (final var item : MAPPER.readTree(queue).path("items")) {
+			load.setQueue(load.getQueue() + 1);
+			if (item.path("stuck").asBoolean()) {
+				load.setStuck(load.getStuck() + 1);
+			}
+		}
+		load.setLoaded(System.currentTimeMillis());
+		loads.put(node, load);
+		return load;
+	}
+
+	/**
+	 * Stop the monitoring of all nodes.
+	 */
+	public void clear() {
+		loads.clear();
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+}
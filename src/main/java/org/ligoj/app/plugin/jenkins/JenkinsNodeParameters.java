@@ -0,0 +1,82 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.ligoj.app.resource.node.ParameterValueResource;
+import org.ligoj.bootstrap.resource.system.configuration.ConfigurationResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the resolved and decrypted node parameters, only kept in memory. The parameters of a node are read again
+ * after <code>service:build:jenkins:parameters-ttl</code> seconds, or once evicted.
+ */
+@Component
+public class JenkinsNodeParameters {
+
+	/**
+	 * Maximum age in seconds of the cached parameters of a node.
+	 */
+	public static final String PARAMETER_TTL = JenkinsPluginResource.KEY + ":parameters-ttl";
+
+	/**
+	 * Default maximum age in seconds of the cached parameters of a node.
+	 */
+	private static final int DEFAULT_TTL = 60;
+
+	/**
+	 * Cached parameters with their load time.
+	 *
+	 * @param parameters The node parameters.
+	 * @param loaded     The time in milliseconds these parameters have been read.
+	 */
+	private record Entry(Map<String, String> parameters, long loaded) {
+	}
+
+	@Autowired
+	protected ParameterValueResource pvResource;
+
+	@Autowired
+	protected ConfigurationResource configuration;
+
+	private final Map<String, Entry> nodes = new ConcurrentHashMap<>();
+
+	/**
+	 * Return the parameters of a node.
+	 *
+	 * @param node The node identifier.
+	 * @return A modifiable copy of the node parameters.
+	 */
+	public Map<String, String> get(final String node) {
+		final var ttl = configuration.get(PARAMETER_TTL, DEFAULT_TTL) * 1000L;
+		var entry = nodes.get(node);
+		if (entry == null || entry.loaded() + ttl < System.currentTimeMillis()) {
+			entry = new Entry(Collections.unmodifiableMap(new HashMap<>(pvResource.getNodeParameters(node))),
+					System.currentTimeMillis());
+			nodes.put(node, entry);
+		}
+		return new HashMap<>(entry.parameters());
+	}
+
+	/**
+	 * Evict the parameters of a node.
+	 *
+	 * @param node The node identifier.
+	 */
+	public void evict(final String node) {
+		nodes.remove(node);
+	}
+
+	/**
+	 * Evict all the cached parameters.
+	 */
+	public void clear() {
+		nodes.clear();
+	}
+}
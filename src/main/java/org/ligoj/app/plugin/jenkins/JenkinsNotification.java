@@ -0,0 +1,63 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Jenkins job event, as sent by the Notification plugin or a generic webhook.
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JenkinsNotification {
+
+	/**
+	 * Job name, without the parent folders.
+	 */
+	private String name;
+
+	/**
+	 * Optional full job name, including the parent folders. Sent by the generic webhooks.
+	 */
+	private String fullName;
+
+	/**
+	 * Job URL relative to Jenkins base URL, such as <code>job/folder/job/name/</code>.
+	 */
+	private String url;
+
+	/**
+	 * Build event.
+	 */
+	private Build build;
+
+	/**
+	 * Jenkins build event.
+	 */
+	@Getter
+	@Setter
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Build {
+
+		private int number;
+
+		/**
+		 * Build phase: <code>QUEUED</code>, <code>STARTED</code>, <code>COMPLETED</code> or <code>FINALIZED</code>.
+		 */
+		private String phase;
+
+		/**
+		 * Build result, such as <code>SUCCESS</code>, <code>UNSTABLE</code> or <code>FAILURE</code>.
+		 */
+		private String status;
+
+		/**
+		 * Build start timestamp.
+		 */
+		private Long timestamp;
+	}
+}
@@ -3,17 +3,31 @@
  */
 package org.ligoj.app.plugin.jenkins;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.stream.Streams;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
 import org.ligoj.app.api.SubscriptionStatusWithData;
+import org.ligoj.app.dao.NodeRepository;
+import org.ligoj.app.dao.ProjectRepository;
 import org.ligoj.app.iam.IamProvider;
+import org.ligoj.app.model.Node;
 import org.ligoj.app.plugin.build.BuildResource;
 import org.ligoj.app.plugin.build.BuildServicePlugin;
 import org.ligoj.app.resource.NormalizeFormat;
@@ -24,9 +38,12 @@ import org.ligoj.bootstrap.core.curl.CurlRequest;
 import org.ligoj.bootstrap.core.curl.HeaderHttpResponseCallback;
 import org.ligoj.bootstrap.core.curl.OnlyRedirectHttpResponseCallback;
 import org.ligoj.bootstrap.core.resource.BusinessException;
+import org.ligoj.bootstrap.core.security.SecurityHelper;
 import org.ligoj.bootstrap.core.validation.ValidationJsonException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.xml.DomUtils;
 import org.springframework.web.util.UriUtils;
@@ -35,11 +52,31 @@ import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -106,197 +143,1432 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	 */
 	public static final String PARAMETER_MAX_DEPTH = KEY + ":max-depth";
 
+	/**
+	 * Maximum sustained requests per second sent to the node. When not defined, there is no limit.
+	 */
+	public static final String PARAMETER_RATE = KEY + ":rate";
+
+	/**
+	 * Maximum burst of requests sent to the node. Defaults to the rate.
+	 */
+	public static final String PARAMETER_BURST = KEY + ":burst";
+
+	/**
+	 * Maximum builds kept in the build history of a job.
+	 */
+	public static final String PARAMETER_HISTORY_SIZE = KEY + ":history-size";
+
+	/**
+	 * Default maximum builds kept in the build history of a job.
+	 */
+	private static final int DEFAULT_HISTORY_SIZE = 50;
+
+	/**
+	 * Minimum delay in seconds between two checks of the new builds of a job.
+	 */
+	public static final String PARAMETER_HISTORY_TTL = KEY + ":history-ttl";
+
+	/**
+	 * Default minimum delay in seconds between two checks of the new builds of a job.
+	 */
+	private static final int DEFAULT_HISTORY_TTL = 60;
+
+	/**
+	 * Shared secret authenticating the Jenkins notifications of a node. When defined, the job statuses are cached and
+	 * updated by the notifications.
+	 */
+	public static final String PARAMETER_WEBHOOK_SECRET = KEY + ":webhook-secret";
+
+	/**
+	 * Maximum age in seconds of a job status updated by the notifications before being reconciled with Jenkins.
+	 */
+	public static final String PARAMETER_RECONCILE = KEY + ":reconcile";
+
+	/**
+	 * Default maximum age in seconds of a cached job status.
+	 */
+	private static final int DEFAULT_RECONCILE = 300;
+
+	/**
+	 * Header holding the notification shared secret.
+	 */
+	private static final String WEBHOOK_SECRET_HEADER = "X-Jenkins-Secret";
+
+	/**
+	 * Jenkins colors of the build results.
+	 */
+	private static final Map<String, String> RESULT_TO_COLOR = Map.of("SUCCESS", "blue", "UNSTABLE", "yellow",
+			"FAILURE", "red", "ABORTED", "aborted", "NOT_BUILT", "notbuilt");
+
+	/**
+	 * Maximum age in seconds of a cached job tree used by the searches.
+	 */
+	public static final String PARAMETER_TREE_TTL = KEY + ":tree-ttl";
+
+	/**
+	 * Default maximum age in seconds of a cached job tree.
+	 */
+	private static final int DEFAULT_TREE_TTL = 600;
+
+	/**
+	 * Maximum duration in milliseconds of a node search among all nodes.
+	 */
+	public static final String PARAMETER_SEARCH_TIMEOUT = KEY + ":search-timeout";
+
+	/**
+	 * Default maximum duration in milliseconds of a node search among all nodes.
+	 */
+	private static final int DEFAULT_SEARCH_TIMEOUT = 5000;
+
+	/**
+	 * Maximum returned jobs of a search among all nodes.
+	 */
+	public static final String PARAMETER_SEARCH_MAX = KEY + ":search-max";
+
+	/**
+	 * Default maximum returned jobs of a search among all nodes.
+	 */
+	private static final int DEFAULT_SEARCH_MAX = 50;
+
+	/**
+	 * Maximum concurrent job deletions of a bulk deletion.
+	 */
+	public static final String PARAMETER_DELETE_CONCURRENCY = KEY + ":delete-concurrency";
+
+	/**
+	 * Default maximum concurrent job deletions of a bulk deletion.
+	 */
+	private static final int DEFAULT_DELETE_CONCURRENCY = 4;
+
+	/**
+	 * Latency percentile of the recent reads of a node after which a read is hedged by a second identical read. When
+	 * <code>0</code>, the reads are not hedged.
+	 */
+	public static final String PARAMETER_HEDGE_PERCENTILE = KEY + ":hedge-percentile";
+
+	/**
+	 * Minimal delay in milliseconds before hedging a read.
+	 */
+	public static final String PARAMETER_HEDGE_DELAY = KEY + ":hedge-delay";
+
+	/**
+	 * Default minimal delay in milliseconds before hedging a read.
+	 */
+	private static final int DEFAULT_HEDGE_DELAY = 50;
+
+	/**
+	 * Maximum retries of a read failing with a connection error or a <code>5xx</code> status.
+	 */
+	public static final String PARAMETER_RETRIES = KEY + ":retries";
+
+	/**
+	 * Default maximum retries of a read.
+	 */
+	private static final int DEFAULT_RETRIES = 2;
+
+	/**
+	 * Base delay in milliseconds between two attempts of a read, doubled after each attempt.
+	 */
+	private static final int RETRY_DELAY = 100;
+
+	/**
+	 * Maximum delay in milliseconds between two attempts of a read.
+	 */
+	private static final int RETRY_MAX_DELAY = 2000;
+
+	/**
+	 * Maximum cached pipeline runs.
+	 */
+	private static final int MAX_PIPELINES = 500;
+
+	/**
+	 * Maximum cached test report summaries.
+	 */
+	private static final int MAX_TEST_REPORTS = 500;
+
+	/**
+	 * Maximum cached build histories.
+	 */
+	private static final int MAX_HISTORIES = 500;
+
+	/**
+	 * Maximum failed tests of a test report summary.
+	 */
+	public static final String PARAMETER_TEST_FAILURES = KEY + ":test-failures";
+
+	/**
+	 * Default maximum failed tests of a test report summary.
+	 */
+	private static final int DEFAULT_TEST_FAILURES = 10;
+
+	/**
+	 * Maximum concurrent status reads per node of a status export.
+	 */
+	public static final String PARAMETER_EXPORT_CONCURRENCY = KEY + ":export-concurrency";
+
+	/**
+	 * Default maximum concurrent status reads per node of a status export.
+	 */
+	private static final int DEFAULT_EXPORT_CONCURRENCY = 4;
+
+	/**
+	 * Media type of the newline delimited JSON.
+	 */
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	/**
+	 * Bulk deletion result of a deleted job.
+	 */
+	public static final String DELETED = "deleted";
+
+	/**
+	 * Bulk deletion result of an already deleted job.
+	 */
+	public static final String ABSENT = "absent";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * Maximum duration in milliseconds to wait for a streamed Jenkins response, and then for the client.
+	 */
+	private static final int STREAM_TIMEOUT = 30000;
+
+	/**
+	 * Accepted <code>Range</code> header values forwarded to Jenkins.
+	 */
+	private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=[0-9, -]+");
+
+	/**
+	 * Executor of the parallel Jenkins requests.
+	 */
+	private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * View of the template jobs.
+	 */
+	private static final String TEMPLATES_VIEW = "view/Templates/";
+
 	/**
 	 * Maximum Jenkins depth.
 	 */
 	private static final int MAX_DEPTH = 5;
 
 	/**
-	 * Marker of recursive query text.
+	 * Marker of recursive query text.
+	 */
+	private static final String XML_RECURRING_MARKER = "__XML_RECURRING__";
+
+	/**
+	 * Template query for Jenkins XML tree.
+	 */
+	private static final String XML_TEMPLATE_QUERY = "displayName,fullName,description,color,lastBuild[timestamp],property[branch[head]]" + XML_RECURRING_MARKER;
+
+	/**
+	 * Query for Jenkins XML tree of the searches, only the searched fields.
+	 */
+	private static final String XML_SEARCH_QUERY = "displayName,fullName,description" + XML_RECURRING_MARKER;
+
+	/**
+	 * Public server URL used to fetch the last available version of the product.
+	 */
+	@Value("${service-build-jenkins-server:https://mirrors.jenkins-ci.org}")
+	private String publicServer;
+
+	/**
+	 * Optional cluster cache manager. When <code>null</code>, the versions are not cached.
+	 */
+	@Autowired(required = false)
+	protected CacheManager cacheManager;
+
+	/**
+	 * Build histories by Jenkins base URL and job. The least recently used ones are evicted.
+	 */
+	private final Map<String, BuildHistory> histories = newLruMap(MAX_HISTORIES);
+
+	/**
+	 * Pipeline runs by Jenkins base URL, job and build number. The least recently used ones are evicted.
+	 */
+	private final Map<String, Pipeline> pipelines = newLruMap(MAX_PIPELINES);
+
+	/**
+	 * Test report summaries of the completed builds by Jenkins base URL, job and build number. The least recently used
+	 * ones are evicted.
+	 */
+	private final Map<String, TestReport> testReports = newLruMap(MAX_TEST_REPORTS);
+
+	/**
+	 * Job trees being refreshed in background.
+	 */
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+	@Autowired
+	protected IamProvider[] iamProvider;
+
+	@Autowired
+	protected XmlUtils xml;
+
+	@Autowired
+	protected JenkinsJobCache jobCache;
+
+	@Autowired
+	protected JenkinsTreeCache treeCache;
+
+	@Autowired
+	protected JenkinsLoadMonitor loadMonitor;
+
+	@Autowired
+	protected JenkinsNodeParameters nodeParameters;
+
+	@Autowired
+	protected JenkinsSearches searches;
+
+	@Autowired
+	protected NodeRepository nodeRepository;
+
+	@Autowired
+	protected ProjectRepository projectRepository;
+
+	@Autowired
+	protected SecurityHelper securityHelper;
+
+	/**
+	 * Used to launch the job for the subscription.
+	 *
+	 * @param subscription the subscription to use to locate the Jenkins instance.
+	 */
+	@POST
+	@Path("build/{subscription:\\d+}")
+	public void build(@PathParam("subscription") final int subscription) {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		try (var ignored = JenkinsCallEvent.begin("build", parameters.get(PARAMETER_URL))) {
+
+			// Check the instance is available
+			validateAdminAccess(parameters);
+			if (!build(parameters, "build") && !build(parameters, "buildWithParameters")) {
+				throw new BusinessException("Launching the job for the subscription {} failed.", subscription);
+			}
+
+			// The cached status is outdated
+			jobCache.evict(parameters.get(PARAMETER_URL), parameters.get(PARAMETER_JOB), getMaxBranches(parameters));
+		}
+	}
+
+	/**
+	 * Launch the job with the URL.
+	 *
+	 * @param parameters Parameters used to define the job
+	 * @param url        URL added to the jenkins's URL to launch the job (can be build or buildWithParameters)
+	 * @return The result of the processing.
+	 */
+	protected boolean build(final Map<String, String> parameters, final String url) {
+		try (var processor = new JenkinsCurlProcessor(parameters)) {
+			final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
+			final var jobName = parameters.get(PARAMETER_JOB);
+			return processor.process(new CurlRequest("POST", jenkinsBaseUrl + "job/" + jobName + "/" + url, null));
+		}
+	}
+
+	@Override
+	public boolean checkStatus(final Map<String, String> parameters) {
+		// Status is UP <=> Administration access is UP
+		validateAdminAccess(parameters);
+		return true;
+	}
+
+	@Override
+	public SubscriptionStatusWithData checkSubscriptionStatus(final Map<String, String> parameters)
+			throws IOException, ParserConfigurationException, SAXException {
+		final var nodeStatusWithData = new SubscriptionStatusWithData();
+		nodeStatusWithData.put("job", getJobStatus(parameters));
+		return nodeStatusWithData;
+	}
+
+	/**
+	 * Subscription to export.
+	 *
+	 * @param node         The node identifier.
+	 * @param subscription The subscription identifier.
+	 * @param parameters   The subscription parameters.
+	 */
+	private record StatusTask(String node, int subscription, Map<String, String> parameters) {
+	}
+
+	/**
+	 * Export the job status of all subscriptions of the Jenkins nodes and the projects visible by the current user, one
+	 * JSON line per subscription. The subscriptions and their parameters are resolved before streaming, at most
+	 * <code>service:build:jenkins:export-concurrency</code> statuses are read at once, and each line is written as
+	 * soon as its status is read.
+	 *
+	 * @return The streamed statuses.
+	 */
+	@GET
+	@Path("status")
+	@Produces(APPLICATION_NDJSON)
+	public StreamingOutput exportStatus() {
+		final var user = securityHelper.getLogin();
+		final var tasks = new ArrayList<StatusTask>();
+		final var visible = new HashMap<Integer, Boolean>();
+		for (final var node : getVisibleNodes()) {
+			for (final var subscription : subscriptionRepository.findAllBy("node.id", node)) {
+				final var project = subscription.getProject().getId();
+				if (visible.computeIfAbsent(project, p -> projectRepository.findOneVisible(p, user) != null)) {
+					tasks.add(new StatusTask(node, subscription.getId(),
+							subscriptionResource.getParameters(subscription.getId())));
+				}
+			}
+		}
+		final var concurrency = configuration.get(PARAMETER_EXPORT_CONCURRENCY, DEFAULT_EXPORT_CONCURRENCY);
+		return out -> exportStatus(tasks, concurrency, out);
+	}
+
+	private void exportStatus(final List<StatusTask> tasks, final int concurrency, final OutputStream out)
+			throws IOException {
+		final var window = new Semaphore(concurrency);
+		final var inFlight = new ArrayList<Future<Object>>();
+		try {
+			for (final var task : tasks) {
+				// The next status is read once a previous one is written
+				window.acquire();
+				for (final var i = inFlight.iterator(); i.hasNext();) {
+					final var done = i.next();
+					if (done.isDone()) {
+						done.get();
+						i.remove();
+					}
+				}
+				inFlight.add(EXECUTOR.submit(() -> {
+					try {
+						writeLine(out, toStatusLine(task));
+					} finally {
+						window.release();
+					}
+					return null;
+				}));
+			}
+			for (final var task : inFlight) {
+				task.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (final ExecutionException e) {
+			// Such as a disconnected client
+			throw new IOException(e.getCause());
+		} finally {
+			inFlight.forEach(t -> t.cancel(true));
+		}
+	}
+
+	/**
+	 * Write a JSON line, the lines being written by many threads.
+	 */
+	private void writeLine(final OutputStream out, final ObjectNode line) throws IOException {
+		final var bytes = MAPPER.writeValueAsBytes(line);
+		synchronized (out) {
+			out.write(bytes);
+			out.write('\n');
+			out.flush();
+		}
+	}
+
+	/**
+	 * Return the status of a subscribed job as a JSON line: job, status, building, last build and branch count by
+	 * status. A failure is reported in the <code>error</code> field.
+	 */
+	private ObjectNode toStatusLine(final StatusTask task) {
+		final var line = MAPPER.createObjectNode().put("subscription", task.subscription()).put("node", task.node())
+				.put("job", task.parameters().get(PARAMETER_JOB));
+		try {
+			final var job = getJobStatus(task.parameters());
+			line.put("status", job.getStatus()).put("building", job.isBuilding()).put("lastBuild", job.getLastBuild());
+			if (job.getJobs() != null && !job.getJobs().isEmpty()) {
+				final var branches = line.putObject("branches");
+				job.getJobs().stream().map(b -> Objects.toString(b.getStatus(), "unknown"))
+						.forEach(status -> branches.put(status, branches.path(status).asInt() + 1));
+			}
+		} catch (final Exception e) {
+			line.put("error", e.getMessage());
+		}
+		return line;
+	}
+
+	/**
+	 * Return the job status. When the node receives the Jenkins notifications, the cached status is returned and
+	 * Jenkins is only requested to reconcile it.
+	 *
+	 * @param parameters The subscription parameters.
+	 * @return The job status.
+	 */
+	private Job getJobStatus(final Map<String, String> parameters)
+			throws IOException, ParserConfigurationException, SAXException {
+		if (parameters.get(PARAMETER_WEBHOOK_SECRET) == null) {
+			// No notification, polling only
+			return validateJob(parameters);
+		}
+		final var url = parameters.get(PARAMETER_URL);
+		final var ttl = configuration.get(PARAMETER_RECONCILE, DEFAULT_RECONCILE) * 1000L;
+		final var maxBranches = getMaxBranches(parameters);
+		final var cached = jobCache.get(url, parameters.get(PARAMETER_JOB), maxBranches, ttl);
+		if (cached != null) {
+			return cached;
+		}
+		final var job = validateJob(parameters);
+		jobCache.put(url, maxBranches, job);
+		return job;
+	}
+
+	/**
+	 * Receive a Jenkins job event and update the cached job status. The event is authenticated with the shared secret
+	 * of the node given in the <code>X-Jenkins-Secret</code> header, never in the query string ending in the access
+	 * logs.
+	 *
+	 * @param node         The Jenkins node sending the notification.
+	 * @param secret       The shared secret given in the header.
+	 * @param notification The job event.
+	 */
+	@POST
+	@Path("{node}/notify")
+	@Consumes(MediaType.APPLICATION_JSON)
+	public void notification(@PathParam("node") final String node, @HeaderParam(WEBHOOK_SECRET_HEADER) final String secret,
+			final JenkinsNotification notification) {
+		final var parameters = nodeParameters.get(node);
+		final var expected = parameters.get(PARAMETER_WEBHOOK_SECRET);
+		if (expected == null || secret == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+				secret.getBytes(StandardCharsets.UTF_8))) {
+			throw new ForbiddenException();
+		}
+		final var job = toJobId(notification);
+		final var build = notification.getBuild();
+		if (job == null || build == null) {
+			// Not a job event
+			return;
+		}
+		final var updated = jobCache.update(parameters.get(PARAMETER_URL), job, getMaxBranches(parameters),
+				j -> update(j, build));
+		if (!"STARTED".equals(build.getPhase())) {
+			// New completed build to fetch, even by a check already in progress
+			histories.computeIfPresent(toHistoryKey(parameters, job), (k, h) -> {
+				h.setNotified(true);
+				return h;
+			});
+		}
+		log.info("Jenkins notification {}#{} {} on node {}, {} cached job(s) updated", job, build.getNumber(),
+				build.getPhase(), node, updated);
+	}
+
+	/**
+	 * Return the full job name from the notification.
+	 */
+	private String toJobId(final JenkinsNotification notification) {
+		if (notification.getFullName() != null) {
+			return notification.getFullName();
+		}
+		if (notification.getUrl() != null) {
+			// "job/folder/job/name/" -> "folder/name"
+			final var segments = StringUtils.strip(notification.getUrl(), "/").split("/");
+			final var names = new ArrayList<String>();
+			for (var i = 1; i < segments.length; i += 2) {
+				names.add(UriUtils.decode(segments[i], StandardCharsets.UTF_8));
+			}
+			return String.join("/", names);
+		}
+		return notification.getName();
+	}
+
+	/**
+	 * Update the job status from the build event.
+	 */
+	private void update(final Job job, final JenkinsNotification.Build build) {
+		if ("STARTED".equals(build.getPhase())) {
+			job.setBuilding(true);
+			job.setLastBuild(ObjectUtils.getIfNull(build.getTimestamp(), job.getLastBuild()));
+		} else if ("COMPLETED".equals(build.getPhase()) || "FINALIZED".equals(build.getPhase())) {
+			job.setBuilding(false);
+			job.setStatus(RESULT_TO_COLOR.getOrDefault(build.getStatus(), job.getStatus()));
+		}
+	}
+
+	@Override
+	public void create(final int subscription) {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		try (var ignored = JenkinsCallEvent.begin("create", parameters.get(PARAMETER_URL))) {
+			final var entity = subscriptionRepository.findOneExpected(subscription);
+			final var project = entity.getProject();
+
+			// Validate the node settings, get the template configuration and the team leader
+			final var templateJob = parameters.get(PARAMETER_TEMPLATE_JOB);
+			final var teamLeaderId = project.getTeamLeader();
+			final var users = iamProvider[0].getConfiguration().getUserRepository();
+			final var steps = new Steps();
+			steps.submit(() -> validateAdminAccess(parameters));
+			final var template = steps.submit(() -> getResource(parameters, "job/" + encode(templateJob) + "/config.xml"));
+			final var leader = steps.submit(() -> users.findById(teamLeaderId));
+			steps.await();
+			final var templateConfigXml = template.resultNow();
+			final var teamLeader = leader.resultNow();
+
+			// update template
+			final String configXml = templateConfigXml
+					.replaceFirst("<disabled>true</disabled>", "<disabled>false</disabled>")
+					.replace("ligoj-saas", project.getPkey())
+					.replaceAll("someone@sample.org", teamLeader.getMails().getFirst())
+					.replaceFirst("(<displayName>).*?(</displayName>)", "$1" + project.getName() + "$2")
+					.replaceFirst("(<description>).*?(</description>)", "$1" + project.getDescription() + "$2");
+
+			// create new job
+			final var job = parameters.get(PARAMETER_JOB);
+			final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
+			final var curlRequest = new CurlRequest(HttpMethod.POST,
+					jenkinsBaseUrl + "createItem?name=" + encode(job), configXml, "Content-Type:application/xml");
+			try (var curl = new JenkinsCurlProcessor(parameters)) {
+				if (!curl.process(curlRequest)) {
+					throw new BusinessException("Creating the job for the subscription {} failed.", subscription);
+				}
+			}
+
+			// The cached trees do not contain this job
+			evictTrees(entity.getNode().getId());
+		}
+	}
+
+	/**
+	 * Evict the cached job trees of a node.
+	 *
+	 * @param node The node identifier.
+	 */
+	private void evictTrees(final String node) {
+		treeCache.evict(node, "");
+		treeCache.evict(node, TEMPLATES_VIEW);
+	}
+
+	@Override
+	public void delete(final int subscription, final boolean deleteRemoteData) {
+		if (deleteRemoteData) {
+			final var parameters = subscriptionResource.getParameters(subscription);
+			// Validate the node settings
+			validateAdminAccess(parameters);
+
+			// delete the job
+			if (!DELETED.equals(deleteJob(parameters))) {
+				throw new BusinessException("Deleting the job for the subscription {} failed.", subscription);
+			}
+
+			// The cached trees contain this job
+			evictTrees(subscriptionRepository.findOneExpected(subscription).getNode().getId());
+		}
+	}
+
+	/**
+	 * Purge the remote jobs of many subscriptions. Only the Jenkins jobs are deleted: the subscriptions are kept, and
+	 * are deleted as usual, without their remote data, by the subscription resource. Each subscription must be visible
+	 * and its project managed by the current user, and each node is validated once. The jobs are deleted in parallel by
+	 * at most <code>service:build:jenkins:delete-concurrency</code> requests, within the rate limit of each node. The
+	 * already deleted jobs are not considered as failures.
+	 *
+	 * @param subscriptions The subscription identifiers.
+	 * @return The result by subscription: {@value #DELETED}, {@value #ABSENT}, or the failure message.
+	 */
+	@POST
+	@Path("delete")
+	@Consumes(MediaType.APPLICATION_JSON)
+	public Map<Integer, String> deleteAll(final List<Integer> subscriptions) {
+		// Resolve and check all subscriptions, and validate each node once, before any deletion
+		final var user = securityHelper.getLogin();
+		final var parameters = new LinkedHashMap<Integer, Map<String, String>>();
+		final var nodes = new HashMap<Integer, String>();
+		final var errors = new HashMap<Integer, String>();
+		final var nodeErrors = new HashMap<String, Optional<String>>();
+		subscriptions.stream().distinct().forEach(s -> {
+			try {
+				parameters.put(s, subscriptionResource.getParameters(s));
+				final var entity = subscriptionRepository.findOneExpected(s);
+				if (!projectRepository.isManageSubscription(entity.getProject().getId(), user)) {
+					// Same check as the subscription deletion
+					throw new EntityNotFoundException(String.valueOf(s));
+				}
+				nodes.put(s, entity.getNode().getId());
+			} catch (final RuntimeException e) {
+				errors.put(s, Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+				return;
+			}
+			nodeErrors.computeIfAbsent(nodes.get(s), n -> {
+				try {
+					validateAdminAccess(parameters.get(s));
+					return Optional.empty();
+				} catch (final RuntimeException e) {
+					return Optional.of(e.getMessage());
+				}
+			});
+		});
+
+		// Delete the jobs of the valid nodes
+		final var limit = new Semaphore(configuration.get(PARAMETER_DELETE_CONCURRENCY, DEFAULT_DELETE_CONCURRENCY));
+		final var tasks = new LinkedHashMap<Integer, Future<String>>();
+		subscriptions.stream().distinct().forEach(s -> {
+			final var error = Optional.ofNullable(errors.get(s)).or(() -> nodeErrors.get(nodes.get(s)));
+			tasks.put(s, error.isPresent() ? CompletableFuture.completedFuture(error.get()) : EXECUTOR.submit(() -> {
+				limit.acquire();
+				try {
+					return deleteJob(parameters.get(s));
+				} finally {
+					limit.release();
+				}
+			}));
+		});
+		final var report = new LinkedHashMap<Integer, String>();
+		tasks.forEach((s, task) -> {
+			try {
+				report.put(s, task.get());
+			} catch (final ExecutionException e) {
+				report.put(s, e.getCause().getMessage());
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				report.put(s, e.getMessage());
+			}
+		});
+
+		// The cached trees contain these jobs
+		nodes.values().stream().distinct().forEach(this::evictTrees);
+		return report;
+	}
+
+	/**
+	 * Delete the job of a subscription and evict its cached status.
+	 *
+	 * @param parameters The subscription parameters.
+	 * @return {@value #DELETED}, or {@value #ABSENT} when the job does not exist.
+	 */
+	private String deleteJob(final Map<String, String> parameters) {
+		final var job = parameters.get(PARAMETER_JOB);
+		final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
+		final var curlRequest = new CurlRequest(HttpMethod.POST,
+				jenkinsBaseUrl + "job/" + encode(job) + "/doDelete", StringUtils.EMPTY);
+		try (var curl = new JenkinsCurlProcessor(parameters, new OnlyRedirectHttpResponseCallback())) {
+			final var deleted = curl.process(curlRequest);
+			if (!deleted && curlRequest.getStatus() != HttpStatus.SC_NOT_FOUND) {
+				throw new BusinessException("Deleting the job {} failed with status {}.", job, curlRequest.getStatus());
+			}
+			// The cached status is outdated
+			jobCache.evict(parameters.get(PARAMETER_URL), job, getMaxBranches(parameters));
+			histories.remove(toHistoryKey(parameters, job));
+			return deleted ? DELETED : ABSENT;
+		}
+	}
+
+	/**
+	 * Stream the console of a build from the given offset. The <code>X-Text-Size</code> header is the offset of the
+	 * next chunk, and the <code>X-More-Data</code> header is <code>true</code> while the build is running, so a
+	 * running build is tailed without downloading again the previous chunks.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @param build        The build number, or a permalink such as <code>lastBuild</code>.
+	 * @param start        The offset of the first returned byte.
+	 * @return The console chunk, piped from Jenkins.
+	 */
+	@GET
+	@Path("console/{subscription:\\d+}/{build:\\d+|last\\w*Build}")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response getConsole(@PathParam("subscription") final int subscription, @PathParam("build") final String build,
+			@QueryParam("start") final long start) {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var callback = stream(parameters,
+				toJobPath(parameters.get(PARAMETER_JOB)) + "/" + build + "/logText/progressiveText?start=" + start);
+		final var response = callback.getResponse(STREAM_TIMEOUT);
+		if (response == null || response.getCode() != HttpStatus.SC_OK) {
+			callback.abort();
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-build", build);
+		}
+		return forward(callback, Response.ok((StreamingOutput) callback::pipe), "X-Text-Size", "X-More-Data").build();
+	}
+
+	/**
+	 * Return the archived artifacts of a build.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @param build        The build number, or a permalink such as <code>lastSuccessfulBuild</code>.
+	 * @return The artifacts of this build.
+	 * @throws IOException When the Jenkins response cannot be parsed.
+	 */
+	@GET
+	@Path("artifact/{subscription:\\d+}/{build:\\d+|last\\w*Build}")
+	public List<Artifact> getArtifacts(@PathParam("subscription") final int subscription,
+			@PathParam("build") final String build) throws IOException {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var json = getResource(parameters, toJobPath(parameters.get(PARAMETER_JOB)) + "/" + build
+				+ "/api/json?tree=artifacts[fileName,relativePath]");
+		if (json == null) {
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-build", build);
+		}
+		return MAPPER.readerForListOf(Artifact.class).readValue(MAPPER.readTree(json).path("artifacts"));
+	}
+
+	/**
+	 * Download an artifact of a build. The body is piped from Jenkins with a fixed buffer, and the
+	 * <code>Range</code> request header is forwarded so large artifacts can be downloaded by parts.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @param build        The build number, or a permalink such as <code>lastSuccessfulBuild</code>.
+	 * @param path         The artifact's relative path.
+	 * @param range        The optional requested byte range.
+	 * @return The artifact content, or the requested part.
+	 */
+	@GET
+	@Path("artifact/{subscription:\\d+}/{build:\\d+|last\\w*Build}/{path:.+}")
+	@Produces(MediaType.APPLICATION_OCTET_STREAM)
+	public Response getArtifact(@PathParam("subscription") final int subscription,
+			@PathParam("build") final String build, @PathParam("path") final String path,
+			@HeaderParam(HttpHeaders.RANGE) final String range) {
+		if (Arrays.asList(path.split("/")).contains("..")) {
+			throw new ValidationJsonException("path", "jenkins-artifact", path);
+		}
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var resource = toJobPath(parameters.get(PARAMETER_JOB)) + "/" + build + "/artifact/"
+				+ UriUtils.encodePath(path, StandardCharsets.UTF_8);
+		final var callback = range != null && RANGE_PATTERN.matcher(range).matches()
+				? stream(parameters, resource, HttpHeaders.RANGE + ":" + range)
+				: stream(parameters, resource);
+		final var response = callback.getResponse(STREAM_TIMEOUT);
+		final var status = response == null ? HttpStatus.SC_NOT_FOUND : response.getCode();
+		if (status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+			callback.abort();
+			return forward(callback, Response.status(status), HttpHeaders.CONTENT_RANGE).build();
+		}
+		if (status != HttpStatus.SC_OK && status != HttpStatus.SC_PARTIAL_CONTENT) {
+			callback.abort();
+			throw new ValidationJsonException("path", "jenkins-artifact", path);
+		}
+		return forward(callback, Response.status(status).entity((StreamingOutput) callback::pipe),
+				HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE, HttpHeaders.ACCEPT_RANGES,
+				HttpHeaders.CONTENT_TYPE, HttpHeaders.LAST_MODIFIED)
+				.header("Content-Disposition", toContentDisposition(StringUtils.substringAfterLast("/" + path, "/")))
+				.build();
+	}
+
+	/**
+	 * Return the attachment disposition of a file: a quoted name restricted to the printable ASCII characters, and the
+	 * exact UTF-8 name as defined by RFC 6266.
+	 */
+	private String toContentDisposition(final String name) {
+		final var fallback = name.replaceAll("[^\\x20-\\x7E]|[\"\\\\]", "_");
+		return "attachment; filename=\"" + fallback + "\"; filename*=UTF-8''" + UriUtils.encode(name, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Copy the available headers of the Jenkins response.
+	 */
+	private Response.ResponseBuilder forward(final JenkinsStreamCallback callback, final Response.ResponseBuilder builder,
+			final String... headers) {
+		Arrays.stream(headers).forEach(h -> Optional.ofNullable(callback.getHeader(h)).ifPresent(v -> builder.header(h, v)));
+		return builder;
+	}
+
+	/**
+	 * Request a Jenkins resource in background, its body being piped by the returned callback.
+	 *
+	 * @param parameters The subscription parameters.
+	 * @param resource   The requested Jenkins resource.
+	 * @param headers    The optional request headers as <code>name:value</code>.
+	 * @return The callback exposing the response.
+	 */
+	private JenkinsStreamCallback stream(final Map<String, String> parameters, final String resource,
+			final String... headers) {
+		final var callback = new JenkinsStreamCallback(STREAM_TIMEOUT);
+		final var request = new CurlRequest(HttpMethod.GET,
+				Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/") + resource, null, headers);
+		EXECUTOR.execute(() -> {
+			try (var curl = new JenkinsCurlProcessor(parameters, callback)) {
+				curl.process(request);
+			} finally {
+				callback.abort();
+			}
+		});
+		return callback;
+	}
+
+	/**
+	 * Return the stages of a pipeline run. A completed run is described once. While the run is in progress, only the
+	 * running stages are described again, and the whole run is described again only when one of them is completed.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @param build        The build number, or <code>lastBuild</code>.
+	 * @return The pipeline run with its stages.
+	 * @throws IOException When the Jenkins response cannot be parsed.
+	 */
+	@GET
+	@Path("stages/{subscription:\\d+}/{build:\\d+|lastBuild}")
+	public Pipeline getStages(@PathParam("subscription") final int subscription, @PathParam("build") final String build)
+			throws IOException {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var job = parameters.get(PARAMETER_JOB);
+		final var number = NumberUtils.isDigits(build) ? build : getBuildNumber(parameters, job, build);
+		final var path = toJobPath(job) + "/" + number;
+		final var key = toHistoryKey(parameters, job) + "#" + number;
+		var pipeline = pipelines.get(key);
+		if (pipeline != null && isRunning(pipeline)) {
+			// The cached run is not modified, the refreshed run replaces it
+			pipeline = refreshRunningStages(parameters, path, pipeline);
+			if (pipeline != null) {
+				pipelines.put(key, pipeline);
+			}
+		}
+		if (pipeline == null) {
+			final var json = getResource(parameters, path + "/wfapi/describe");
+			if (json == null) {
+				throw new ValidationJsonException(PARAMETER_JOB, "jenkins-build", build);
+			}
+			final var run = MAPPER.readTree(json);
+			final var stages = new ArrayList<Stage>();
+			for (final var stage : run.path("stages")) {
+				stages.add(toStage(stage, new Stage()));
+			}
+			pipeline = toStage(run, new Pipeline());
+			pipeline.setStages(List.copyOf(stages));
+			pipelines.put(key, pipeline);
+		}
+		return pipeline;
+	}
+
+	/**
+	 * Return the test report summary of a build: the test counts and the slowest failed tests. The report is aggregated
+	 * while it is read, and the summary of a completed build is cached.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @param build        The build number, or a permalink such as <code>lastCompletedBuild</code>.
+	 * @return The test report summary.
+	 * @throws IOException When the Jenkins response cannot be parsed.
+	 */
+	@GET
+	@Path("test-report/{subscription:\\d+}/{build:\\d+|last\\w*Build}")
+	public TestReport getTestReport(@PathParam("subscription") final int subscription,
+			@PathParam("build") final String build) throws IOException {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var job = parameters.get(PARAMETER_JOB);
+		final var key = toHistoryKey(parameters, job) + "#";
+		final var cached = testReports.get(key + build);
+		if (cached != null) {
+			return cached;
+		}
+
+		// Resolve the build and its state
+		final var path = toJobPath(job) + "/" + build;
+		final var json = getResource(parameters, path + "/api/json?tree=number,building");
+		if (json == null) {
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-build", build);
+		}
+		final var info = MAPPER.readTree(json);
+		final var number = info.path("number").asInt();
+		final var completed = testReports.get(key + number);
+		if (completed != null) {
+			return completed;
+		}
+
+		// Aggregate the report while it is read
+		final var callback = new JenkinsTestReportCallback(configuration.get(PARAMETER_TEST_FAILURES, DEFAULT_TEST_FAILURES));
+		try (var curl = new JenkinsCurlProcessor(parameters, callback)) {
+			curl.process(new CurlRequest(HttpMethod.GET, Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/")
+					+ path + "/testReport/api/xml?tree=suites[cases[className,name,duration,status]]", null));
+		}
+		final var report = callback.getReport();
+		if (report == null) {
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-test-report", build);
+		}
+		report.setBuild(number);
+		if (!info.path("building").asBoolean()) {
+			// The report of a completed build never changes
+			testReports.put(key + number, report);
+		}
+		return report;
+	}
+
+	/**
+	 * Resolve the number of a permalink build.
+	 */
+	private String getBuildNumber(final Map<String, String> parameters, final String job, final String build)
+			throws IOException {
+		final var json = getResource(parameters, toJobPath(job) + "/api/json?tree=" + build + "[number]");
+		final var number = json == null ? null : MAPPER.readTree(json).path(build).path("number");
+		if (number == null || !number.isInt()) {
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-build", build);
+		}
+		return number.asText();
+	}
+
+	/**
+	 * Describe again the running stages of a cached run, without modifying it.
+	 *
+	 * @return A new run with the updated stages, or <code>null</code> when a running stage has completed or when there
+	 *         is no running stage: the whole run is then described again.
+	 */
+	private Pipeline refreshRunningStages(final Map<String, String> parameters, final String path,
+			final Pipeline pipeline) throws IOException {
+		final var stages = new ArrayList<>(pipeline.getStages());
+		var duration = pipeline.getDuration();
+		var running = false;
+		for (var i = 0; i < stages.size(); i++) {
+			if (isRunning(stages.get(i))) {
+				final var json = getResource(parameters,
+						path + "/execution/node/" + encode(stages.get(i).getId()) + "/wfapi/describe");
+				final var stage = json == null ? null : toStage(MAPPER.readTree(json), new Stage());
+				if (stage == null || !isRunning(stage)) {
+					// Next stages may have started
+					return null;
+				}
+				stages.set(i, stage);
+				duration = Math.max(duration, stage.getStartTime() + stage.getDuration() - pipeline.getStartTime());
+				running = true;
+			}
+		}
+		if (!running) {
+			return null;
+		}
+		final var refreshed = new Pipeline();
+		refreshed.setId(pipeline.getId());
+		refreshed.setName(pipeline.getName());
+		refreshed.setStatus(pipeline.getStatus());
+		refreshed.setStartTime(pipeline.getStartTime());
+		refreshed.setDuration(duration);
+		refreshed.setStages(List.copyOf(stages));
+		return refreshed;
+	}
+
+	/**
+	 * Return a thread safe map evicting the least recently used entries.
+	 *
+	 * @param max The maximum entries.
+	 * @param <V> The value type.
+	 * @return The new map.
+	 */
+	private static <V> Map<String, V> newLruMap(final int max) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+				return size() > max;
+			}
+		});
+	}
+
+	private boolean isRunning(final Stage stage) {
+		return "IN_PROGRESS".equals(stage.getStatus()) || "PAUSED_PENDING_INPUT".equals(stage.getStatus());
+	}
+
+	private <T extends Stage> T toStage(final JsonNode json, final T stage) {
+		stage.setId(json.path("id").asText(null));
+		stage.setName(json.path("name").asText(null));
+		stage.setStatus(json.path("status").asText(null));
+		stage.setStartTime(json.path("startTimeMillis").asLong());
+		stage.setDuration(json.path("durationMillis").asLong());
+		return stage;
+	}
+
+	/**
+	 * Return the last completed builds of the subscribed job, the most recent first. The new builds are fetched
+	 * incrementally from Jenkins at most every <code>service:build:jenkins:history-ttl</code> seconds, and the last
+	 * <code>service:build:jenkins:history-size</code> ones are kept.
+	 *
+	 * @param subscription The subscription identifier.
+	 * @return The last completed builds.
+	 * @throws IOException When the Jenkins response cannot be read.
+	 */
+	@GET
+	@Path("history/{subscription:\\d+}")
+	public List<Build> getBuildHistory(@PathParam("subscription") final int subscription) throws IOException {
+		final var parameters = subscriptionResource.getParameters(subscription);
+		final var capacity = configuration.get(PARAMETER_HISTORY_SIZE, DEFAULT_HISTORY_SIZE);
+		final var history = histories.compute(toHistoryKey(parameters, parameters.get(PARAMETER_JOB)),
+				(k, h) -> h == null || h.getCapacity() != capacity ? new BuildHistory(capacity) : h);
+		synchronized (history) {
+			final var now = System.currentTimeMillis();
+			if (history.isNotified()
+					|| history.getChecked() + configuration.get(PARAMETER_HISTORY_TTL, DEFAULT_HISTORY_TTL) * 1000L < now) {
+				// A notification received during this check is kept for the next read
+				history.setNotified(false);
+				updateHistory(parameters, history);
+				history.setChecked(now);
+			}
+			return history.toList();
+		}
+	}
+
+	private String toHistoryKey(final Map<String, String> parameters, final String job) {
+		return Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/") + job;
+	}
+
+	/**
+	 * Fetch the builds completed after the last stored one, and the older builds still running at the last check.
+	 */
+	private void updateHistory(final Map<String, String> parameters, final BuildHistory history) throws IOException {
+		final var job = parameters.get(PARAMETER_JOB);
+		final var path = toJobPath(job);
+		final var lastAsJson = getResource(parameters, path + "/api/json?tree=lastBuild[number],lastCompletedBuild[number]");
+		if (lastAsJson == null) {
+			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-job", job);
+		}
+		final var last = MAPPER.readTree(lastAsJson);
+		final var lastBuild = last.path("lastBuild").path("number").asInt();
+		final var lastCompleted = last.path("lastCompletedBuild").path("number").asInt();
+		final var known = history.getLastNumber();
+		if (lastCompleted <= known && history.getRunning() == 0) {
+			// Nothing has changed
+			return;
+		}
+
+		// The builds are listed from the most recent one, including the running ones, down to the oldest running one
+		final var from = history.getRunning() == 0 ? known + 1 : Math.min(history.getRunning(), known + 1);
+		final var range = Math.min(lastBuild - from + 1, lastBuild - lastCompleted + history.getCapacity());
+		final var buildsAsJson = getResource(parameters, path + "/api/json?tree=builds[number,building,result,duration,timestamp]%7B0," + range + "%7D");
+		if (buildsAsJson == null) {
+			return;
+		}
+		final var builds = new ArrayList<JsonNode>();
+		MAPPER.readTree(buildsAsJson).path("builds").forEach(builds::add);
+		var running = 0;
+		for (final var build : builds) {
+			final var number = build.path("number").asInt();
+			if (number < from || number > lastCompleted) {
+				continue;
+			}
+			if (build.path("building").asBoolean()) {
+				// To check again until completed
+				running = running == 0 ? number : Math.min(running, number);
+			} else {
+				history.add(number, build.path("result").asText(null), build.path("duration").asLong(),
+						build.path("timestamp").asLong());
+			}
+		}
+		history.setRunning(running);
+	}
+
+	private String encode(final String job) {
+		return UriUtils.encode(job, "UTF-8");
+	}
+
+	/**
+	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered.
+	 *
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @return job names matching the criteria.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
 	 */
-	private static final String XML_RECURRING_MARKER = "__XML_RECURRING__";
+	public List<Job> findAllByName(final String node, final String criteria)
+			throws SAXException, IOException, ParserConfigurationException {
+		return findAllByName(node, criteria, null);
+	}
 
 	/**
-	 * Template query for Jenkins XML tree.
+	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered.
+	 *
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @return job names matching the criteria.
+	 * @throws CancellationException        When the search is superseded by a newer search with the same token.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
 	 */
-	private static final String XML_TEMPLATE_QUERY = "displayName,fullName,description,color,lastBuild[timestamp],property[branch[head]]" + XML_RECURRING_MARKER;
+	public List<Job> findAllByName(final String node, final String criteria, final String token)
+			throws SAXException, IOException, ParserConfigurationException {
+		return searches.run(toSearchKey(token), () -> findAllByNameInView(node, criteria, null));
+	}
 
 	/**
-	 * Public server URL used to fetch the last available version of the product.
+	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered. The
+	 * search is cancelled when the client disconnects, and is answered with a <code>409</code> status when superseded
+	 * by a newer search with the same token.
+	 *
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @param response The suspended response, resumed with the job names matching the criteria.
 	 */
-	@Value("${service-build-jenkins-server:https://mirrors.jenkins-ci.org}")
-	private String publicServer;
-
-	@Autowired
-	protected IamProvider[] iamProvider;
-
-	@Autowired
-	protected XmlUtils xml;
+	@GET
+	@Path("{node}/{criteria}")
+	@Consumes(MediaType.APPLICATION_JSON)
+	public void findAllByName(@PathParam("node") final String node, @PathParam("criteria") final String criteria,
+			@QueryParam("token") final String token, @Suspended final AsyncResponse response) {
+		searches.run(toSearchKey(token), () -> findAllByNameInView(node, criteria, null), response);
+	}
 
 	/**
-	 * Used to launch the job for the subscription.
+	 * Cancel the in-flight search of the current user with the given client token, aborting its Jenkins requests.
 	 *
-	 * @param subscription the subscription to use to locate the Jenkins instance.
+	 * @param token The client search token.
 	 */
-	@POST
-	@Path("build/{subscription:\\d+}")
-	public void build(@PathParam("subscription") final int subscription) {
-		final var parameters = subscriptionResource.getParameters(subscription);
+	@DELETE
+	@Path("search/{token}")
+	public void cancelSearch(@PathParam("token") final String token) {
+		searches.cancel(toSearchKey(token));
+	}
 
-		// Check the instance is available
-		validateAdminAccess(parameters);
-		if (!build(parameters, "build") && !build(parameters, "buildWithParameters")) {
-			throw new BusinessException("Launching the job for the subscription {} failed.", subscription);
-		}
+	/**
+	 * Return the search key of the current user and the given client token.
+	 */
+	private String toSearchKey(final String token) {
+		return StringUtils.isBlank(token) ? null : securityHelper.getLogin() + "|" + token;
 	}
 
 	/**
-	 * Launch the job with the URL.
+	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered.
 	 *
-	 * @param parameters Parameters used to define the job
-	 * @param url        URL added to the jenkins's URL to launch the job (can be build or buildWithParameters)
-	 * @return The result of the processing.
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @param view     The optional view URL.
+	 * @return job names matching the criteria.
 	 */
-	protected boolean build(final Map<String, String> parameters, final String url) {
-		try (var processor = new JenkinsCurlProcessor(parameters)) {
-			final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
-			final var jobName = parameters.get(PARAMETER_JOB);
-			return processor.process(new CurlRequest("POST", jenkinsBaseUrl + "job/" + jobName + "/" + url, null));
+	private List<Job> findAllByNameInView(final String node, final String criteria, final String view)
+			throws SAXException, IOException, ParserConfigurationException {
+		try (var ignored = JenkinsCallEvent.begin("findAllByName", node)) {
+			// Prepare the context, an ordered set of jobs
+			final var format = new NormalizeFormat();
+			final var result = new TreeMap<String, Job>();
+			filter(getAllJobs(node, StringUtils.trimToEmpty(view)), format, criteria)
+					.forEach(job -> result.put(format.format(ObjectUtils.getIfNull(job.getName(), job.getId())), job));
+			return new ArrayList<>(result.values());
 		}
 	}
 
-	@Override
-	public boolean checkStatus(final Map<String, String> parameters) {
-		// Status is UP <=> Administration access is UP
-		validateAdminAccess(parameters);
-		return true;
+	/**
+	 * Return the new jobs matching to the given criteria. Name, display name and description are considered.
+	 */
+	private Stream<Job> filter(final JobSnapshot jobs, final NormalizeFormat format, final String criteria) {
+		final var formatCriteria = format.format(criteria);
+		return IntStream.range(0, jobs.size()).filter(i ->
+				format.format(Objects.toString(jobs.getId(i), "")).contains(formatCriteria)
+						|| format.format(Objects.toString(jobs.getName(i), "")).contains(formatCriteria)
+						|| format.format(Objects.toString(jobs.getDescription(i), "")).contains(formatCriteria))
+				.mapToObj(jobs::toJob);
 	}
 
-	@Override
-	public SubscriptionStatusWithData checkSubscriptionStatus(final Map<String, String> parameters)
-			throws IOException, ParserConfigurationException, SAXException {
-		final var nodeStatusWithData = new SubscriptionStatusWithData();
-		nodeStatusWithData.put("job", validateJob(parameters));
-		return nodeStatusWithData;
+	/**
+	 * Search the jobs matching to the given criteria among all Jenkins nodes visible by the current user.
+	 *
+	 * @param criteria the search criteria.
+	 * @return The first jobs matching the criteria ordered by name, and tagged with their node.
+	 * @throws IOException When the search is interrupted.
+	 * @see #findAllByNameAllNodes(String, String, AsyncResponse)
+	 */
+	public List<Job> findAllByNameAllNodes(final String criteria) throws IOException {
+		return findAllByNameAllNodes(criteria, null);
 	}
 
-	@Override
-	public void create(final int subscription) {
-		final var parameters = subscriptionResource.getParameters(subscription);
-		// Validate the node settings
-		validateAdminAccess(parameters);
-
-		// Get Template configuration
-		final var templateJob = parameters.get(PARAMETER_TEMPLATE_JOB);
-		final var templateConfigXml = getResource(parameters, "job/" + encode(templateJob) + "/config.xml");
-
-		// update template
-		final var project = subscriptionRepository.findOneExpected(subscription).getProject();
-		final var teamLeader = iamProvider[0].getConfiguration().getUserRepository()
-				.findById(project.getTeamLeader());
-		final String configXml = templateConfigXml
-				.replaceFirst("<disabled>true</disabled>", "<disabled>false</disabled>")
-				.replace("ligoj-saas", project.getPkey())
-				.replaceAll("someone@sample.org", teamLeader.getMails().getFirst())
-				.replaceFirst("(<displayName>).*?(</displayName>)", "$1" + project.getName() + "$2")
-				.replaceFirst("(<description>).*?(</description>)", "$1" + project.getDescription() + "$2");
-
-		// create new job
-		final var job = parameters.get(PARAMETER_JOB);
-		final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
-		final var curlRequest = new CurlRequest(HttpMethod.POST,
-				jenkinsBaseUrl + "createItem?name=" + encode(job), configXml, "Content-Type:application/xml");
-		try (var curl = new JenkinsCurlProcessor(parameters)) {
-			if (!curl.process(curlRequest)) {
-				throw new BusinessException("Creating the job for the subscription {} failed.", subscription);
-			}
+	/**
+	 * Search the jobs matching to the given criteria among all Jenkins nodes visible by the current user.
+	 *
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @return The first jobs matching the criteria ordered by name, and tagged with their node.
+	 * @throws CancellationException When the search is superseded by a newer search with the same token.
+	 * @throws IOException           When the search is interrupted.
+	 * @see #findAllByNameAllNodes(String, String, AsyncResponse)
+	 */
+	public List<Job> findAllByNameAllNodes(final String criteria, final String token) throws IOException {
+		final var nodes = getVisibleNodes();
+		try {
+			return searches.run(toSearchKey(token), () -> findAllByNameAllNodes(nodes, criteria));
+		} catch (final SAXException | ParserConfigurationException e) {
+			// Not thrown, the failed nodes are ignored
+			throw new IllegalStateException(e);
 		}
 	}
 
-	@Override
-	public void delete(final int subscription, final boolean deleteRemoteData) {
-		if (deleteRemoteData) {
-			final var parameters = subscriptionResource.getParameters(subscription);
-			// Validate the node settings
-			validateAdminAccess(parameters);
+	/**
+	 * Search the jobs matching to the given criteria among all Jenkins nodes visible by the current user. The nodes are
+	 * requested in parallel, and the nodes not responding within <code>service:build:jenkins:search-timeout</code>
+	 * milliseconds are ignored. Name, display name and description are considered. The search is cancelled when the
+	 * client disconnects, and is answered with a <code>409</code> status when superseded by a newer search with the
+	 * same token.
+	 *
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @param response The suspended response, resumed with the first jobs matching the criteria ordered by name, and
+	 *                 tagged with their node.
+	 */
+	@GET
+	@Path("search/{criteria}")
+	@Consumes(MediaType.APPLICATION_JSON)
+	public void findAllByNameAllNodes(@PathParam("criteria") final String criteria,
+			@QueryParam("token") final String token, @Suspended final AsyncResponse response) {
+		// The visible nodes are resolved within the security context of the request
+		final var nodes = getVisibleNodes();
+		searches.run(toSearchKey(token), () -> findAllByNameAllNodes(nodes, criteria), response);
+	}
 
-			// delete the job
-			final var job = parameters.get(PARAMETER_JOB);
-			final var jenkinsBaseUrl = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/");
-			final var curlRequest = new CurlRequest(HttpMethod.POST,
-					jenkinsBaseUrl + "job/" + encode(job) + "/doDelete", StringUtils.EMPTY);
-			try (var curl = new JenkinsCurlProcessor(parameters, new OnlyRedirectHttpResponseCallback())) {
-				if (!curl.process(curlRequest)) {
-					throw new BusinessException("Deleting the job for the subscription {} failed.", subscription);
+	/**
+	 * Search the jobs matching to the given criteria among the given nodes.
+	 */
+	private List<Job> findAllByNameAllNodes(final List<String> nodes, final String criteria)
+			throws InterruptedIOException {
+		final var format = new NormalizeFormat();
+		final var tasks = nodes.stream().map(node -> EXECUTOR.submit(() ->
+				filter(getAllJobs(node, ""), format, criteria).toList())).toList();
+		final var max = configuration.get(PARAMETER_SEARCH_MAX, DEFAULT_SEARCH_MAX);
+		final var deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(configuration.get(PARAMETER_SEARCH_TIMEOUT, DEFAULT_SEARCH_TIMEOUT));
+		final var result = new TreeMap<String, Job>();
+		try {
+			for (final var task : tasks) {
+				try {
+					// Bounded top-K merge
+					task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS).forEach(job -> {
+						result.put(format.format(ObjectUtils.getIfNull(job.getName(), job.getId())) + "|" + job.getNode(), job);
+						if (result.size() > max) {
+							result.pollLastEntry();
+						}
+					});
+				} catch (final TimeoutException e) {
+					// The slow node is ignored, its tree is still loaded and cached for the next searches
+					log.info("Jenkins search timeout of {}", nodes.get(tasks.indexOf(task)));
+				} catch (final ExecutionException e) {
+					log.info("Jenkins search failed: {}", e.getCause().getMessage());
 				}
 			}
+		} catch (final InterruptedException e) {
+			// The node tasks are left to complete their tree loads
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Cancelled search of " + criteria);
 		}
+		return new ArrayList<>(result.values());
 	}
 
-	private String encode(final String job) {
-		return UriUtils.encode(job, "UTF-8");
+	/**
+	 * Return the Jenkins nodes visible by the current user.
+	 *
+	 * @return The visible node identifiers.
+	 */
+	protected List<String> getVisibleNodes() {
+		final var user = securityHelper.getLogin();
+		return nodeRepository.findAllBy("refined.id", KEY).stream().map(Node::getId)
+				.filter(node -> nodeRepository.findOneVisible(node, user) != null).toList();
 	}
 
 	/**
-	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered.
+	 * Return the executors and queue load of a node visible by the current user. The load is refreshed in background
+	 * every <code>service-build-jenkins-load-interval</code> seconds, whatever the amount of viewers.
 	 *
-	 * @param node     the node to be tested with given parameters.
-	 * @param criteria the search criteria.
-	 * @return job names matching the criteria.
-	 * @throws SAXException                 When Jenkins project cannot be validated.
-	 * @throws IOException                  When Jenkins project cannot be read.
-	 * @throws ParserConfigurationException When Jenkins project cannot be parsed.
+	 * @param node The node identifier.
+	 * @return The last known load.
+	 * @throws IOException When the Jenkins response cannot be parsed.
 	 */
 	@GET
-	@Path("{node}/{criteria}")
-	@Consumes(MediaType.APPLICATION_JSON)
-	public List<Job> findAllByName(@PathParam("node") final String node, @PathParam("criteria") final String criteria)
+	@Path("load/{node}")
+	public NodeLoad getLoad(@PathParam("node") final String node) throws IOException {
+		if (!getVisibleNodes().contains(node)) {
+			throw new EntityNotFoundException(node);
+		}
+		return loadMonitor.get(node);
+	}
+
+	/**
+	 * Return all jobs of the given node and view, from the cache when loaded less than
+	 * <code>service:build:jenkins:tree-ttl</code> seconds ago. An expired or persisted tree is returned while being
+	 * refreshed in background.
+	 *
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 * @return The job tree snapshot.
+	 */
+	private JobSnapshot getAllJobs(final String node, final String view)
 			throws SAXException, IOException, ParserConfigurationException {
-		return findAllByName(node, criteria, null);
+		final var cached = treeCache.get(node, view, configuration.get(PARAMETER_TREE_TTL, DEFAULT_TREE_TTL) * 1000L);
+		if (cached != null) {
+			return cached;
+		}
+		final var stale = treeCache.getStale(node, view);
+		if (stale != null) {
+			refreshAllJobs(node, view);
+			return stale;
+		}
+		// The inputs are resolved by the caller, the load being shared with the other searches
+		final var parameters = nodeParameters.get(node);
+		final var query = getTreeQuery(node, view);
+		return searches.join(node + "|" + view, () -> loadAllJobs(parameters, node, view, query));
 	}
 
 	/**
-	 * Search the Jenkins's jobs matching to the given criteria. Name, display name and description are considered.
+	 * Load in background all jobs of the given node and view, unless already being loaded.
+	 */
+	private void refreshAllJobs(final String node, final String view) {
+		final var key = node + "|" + view;
+		if (refreshing.add(key)) {
+			EXECUTOR.execute(() -> {
+				try {
+					JenkinsRateLimiter.background(() -> loadAllJobs(node, view));
+				} catch (final Exception e) {
+					log.warn("Unable to refresh the Jenkins jobs of {}: {}", node, e.getMessage());
+				} finally {
+					refreshing.remove(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Load from Jenkins all jobs of the given node and view, and cache them.
 	 *
-	 * @param node     the node to be tested with given parameters.
-	 * @param criteria the search criteria.
-	 * @param view     The optional view URL.
-	 * @return job names matching the criteria.
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 * @return The job tree snapshot.
+	 * @throws SAXException                 When Jenkins project cannot be validated.
+	 * @throws IOException                  When Jenkins project cannot be read.
+	 * @throws ParserConfigurationException When Jenkins project cannot be parsed.
 	 */
-	private List<Job> findAllByName(final String node, final String criteria, final String view)
+	public JobSnapshot loadAllJobs(final String node, final String view)
 			throws SAXException, IOException, ParserConfigurationException {
-		// Build Jenkins query
-		var query = "jobs[" + XML_TEMPLATE_QUERY + "]";
-		final int maxDepth = configuration.get(PARAMETER_MAX_DEPTH, MAX_DEPTH);
+		return loadAllJobs(nodeParameters.get(node), node, view, getTreeQuery(node, view));
+	}
+
+	/**
+	 * Return the tree query of the searched fields of the jobs. The query is limited to one level more than the folder
+	 * depth of the previous tree of this node and view, so the new nested folders are discovered level by level, and
+	 * never exceeds <code>service:build:jenkins:max-depth</code> nested folders.
+	 */
+	private String getTreeQuery(final String node, final String view) {
+		var query = "jobs[" + XML_SEARCH_QUERY + "]";
+		// The root of the tree is the instance or the view: its depth is the amount of known levels plus one
+		final int known = Optional.ofNullable(treeCache.getStale(node, view)).map(JobSnapshot::getDepth)
+				.orElse(Integer.MAX_VALUE);
+		final int maxDepth = Math.min(known, configuration.get(PARAMETER_MAX_DEPTH, MAX_DEPTH));
 
 		for (var depth = 1; depth < maxDepth; depth++) {
-			query = query.replace(XML_RECURRING_MARKER, ",jobs[" + XML_TEMPLATE_QUERY + "]");
+			query = query.replace(XML_RECURRING_MARKER, ",jobs[" + XML_SEARCH_QUERY + "]");
 		}
 		// End of the recursion
-		query = query.replace(XML_RECURRING_MARKER, "");
-
-		// Prepare the context, an ordered set of jobs
-		final var format = new NormalizeFormat();
-		final var formatCriteria = format.format(criteria);
-		final var parameters = pvResource.getNodeParameters(node);
+		return query.replace(XML_RECURRING_MARKER, "");
+	}
 
+	/**
+	 * Load from Jenkins all jobs of the given node and view with the given tree query, and cache them.
+	 */
+	private JobSnapshot loadAllJobs(final Map<String, String> parameters, final String node, final String view,
+			final String query) throws SAXException, IOException, ParserConfigurationException {
 		// Get the jobs and parse them
-		final var url = StringUtils.trimToEmpty(view) + "api/xml?tree=" + query;
-		final var jobsAsXml = Objects.toString(getResource(parameters, url), "<a/>");
-		final var jobsAsInput = IOUtils.toInputStream(jobsAsXml, StandardCharsets.UTF_8);
+		final var url = view + "api/xml?tree=" + query;
+		final var jobsAsXml = getResource(parameters, url);
+		if (Thread.currentThread().isInterrupted()) {
+			// Cancelled search, the response is not parsed
+			throw new InterruptedIOException("Cancelled load of the jobs of " + node);
+		}
+		final var start = System.nanoTime();
+		final var jobsAsInput = IOUtils.toInputStream(Objects.toString(jobsAsXml, "<a/>"), StandardCharsets.UTF_8);
 		final var hudson = xml.parse(jobsAsInput).getDocumentElement();
-		final var result = new TreeMap<String, Job>();
-		getRecursiveJobs(hudson)
-				.filter(job ->
-						format.format(Objects.toString(job.getId(), "")).contains(formatCriteria)
-								|| format.format(Objects.toString(job.getName(), "")).contains(formatCriteria)
-								|| format.format(Objects.toString(job.getDescription(), "")).contains(formatCriteria))
-				.forEach(job -> result.put(format.format(ObjectUtils.getIfNull(job.getName(), job.getId())), job));
-		return new ArrayList<>(result.values());
+		final var builder = new JobSnapshot.Builder();
+		addRecursiveJobs(hudson, builder, -1);
+		final var jobs = builder.build(node);
+		JenkinsCallEvent.onParsed(jobs.size(), System.nanoTime() - start);
+		if (jobsAsXml != null) {
+			treeCache.put(node, view, jobs);
+		}
+		return jobs;
 	}
 
-	private Stream<Job> getRecursiveJobs(Element e) {
-		return Stream.concat(Stream.of(newJob(e)), DomUtils.getChildElementsByTagName(e, "job").stream().flatMap(this::getRecursiveJobs));
+	private void addRecursiveJobs(final Element e, final JobSnapshot.Builder builder, final int parent) {
+		final var job = newJob(e);
+		final var index = builder.add(parent, job.getId(), job.getName(), job.getDescription(), job.getStatus(),
+				job.isBuilding(), job.isPullRequestBranch(), job.getLastBuild());
+		DomUtils.getChildElementsByTagName(e, "job").forEach(c -> addRecursiveJobs(c, builder, index));
 	}
 
 	/**
@@ -306,17 +1578,49 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	 * @param node     the node to be tested with given parameters.
 	 * @param criteria the search criteria.
 	 * @return template job names matching the criteria.
-	 * @throws SAXException                 When Jenkins project cannot be validated.
-	 * @throws IOException                  When Jenkins project cannot be read.
-	 * @throws ParserConfigurationException When Jenkins project cannot be parsed.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
+	 */
+	public List<Job> findAllTemplateByName(final String node, final String criteria)
+			throws SAXException, IOException, ParserConfigurationException {
+		return findAllTemplateByName(node, criteria, null);
+	}
+
+	/**
+	 * Search the Jenkins's template jobs matching to the given criteria. Name, display name and description are
+	 * considered.
+	 *
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @return template job names matching the criteria.
+	 * @throws CancellationException        When the search is superseded by a newer search with the same token.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
+	 */
+	public List<Job> findAllTemplateByName(final String node, final String criteria, final String token)
+			throws SAXException, IOException, ParserConfigurationException {
+		return searches.run(toSearchKey(token), () -> findAllByNameInView(node, criteria, TEMPLATES_VIEW));
+	}
+
+	/**
+	 * Search the Jenkins's template jobs matching to the given criteria. Name, display name and description are
+	 * considered.
+	 *
+	 * @param node     the node to be tested with given parameters.
+	 * @param criteria the search criteria.
+	 * @param token    The optional client search token. A new search with the same token cancels the previous one.
+	 * @param response The suspended response, resumed with the template job names matching the criteria.
 	 */
 	@GET
 	@Path("template/{node}/{criteria}")
 	@Consumes(MediaType.APPLICATION_JSON)
-	public List<Job> findAllTemplateByName(@PathParam("node") final String node,
-			@PathParam("criteria") final String criteria)
-			throws SAXException, IOException, ParserConfigurationException {
-		return findAllByName(node, criteria, "view/Templates/");
+	public void findAllTemplateByName(@PathParam("node") final String node,
+			@PathParam("criteria") final String criteria, @QueryParam("token") final String token,
+			@Suspended final AsyncResponse response) {
+		searches.run(toSearchKey(token), () -> findAllByNameInView(node, criteria, TEMPLATES_VIEW), response);
 	}
 
 	/**
@@ -335,7 +1639,7 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	public Job findById(@PathParam("node") final String node, @PathParam("id") final String id)
 			throws IOException, ParserConfigurationException, SAXException {
 		// Prepare the context, an ordered set of jobs
-		final var parameters = pvResource.getNodeParameters(node);
+		final var parameters = nodeParameters.get(node);
 		parameters.put(PARAMETER_JOB, id);
 		return validateJob(parameters);
 	}
@@ -382,7 +1686,11 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	 */
 	private String getResource(final CurlProcessor processor, final String url, final String resource) {
 		// Get the resource using the preempted authentication
-		return processor.get(Strings.CS.appendIfMissing(url, "/") + resource);
+		final var response = processor.get(Strings.CS.appendIfMissing(url, "/") + resource);
+		if (response == null && Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("Cancelled read of " + resource);
+		}
+		return response;
 	}
 
 	/**
@@ -391,28 +1699,177 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	 * @param parameters The subscription parameters.
 	 * @param resource   The requested Jenkins resource.
 	 * @return The Jenkins resource's content.
+	 * @throws CancellationException When the current thread is interrupted, the interruption flag being kept.
 	 */
 	protected String getResource(final Map<String, String> parameters, final String resource) {
-		return getResource(new JenkinsCurlProcessor(parameters), parameters.get(PARAMETER_URL), resource);
+		try (var ignored = JenkinsCallEvent.begin("getResource", parameters.get(PARAMETER_URL))) {
+			final var delay = JenkinsLatency.percentile(parameters.get(PARAMETER_URL),
+					configuration.get(PARAMETER_HEDGE_PERCENTILE, 0));
+			if (delay < 0) {
+				return getResourceWithRetry(parameters, resource);
+			}
+			return getResourceHedged(parameters, resource,
+					Math.max(delay, configuration.get(PARAMETER_HEDGE_DELAY, DEFAULT_HEDGE_DELAY)));
+		}
+	}
+
+	/**
+	 * Return a Jenkins's resource, requested a second time when there is no response after the given delay. The first
+	 * response is kept, and the other request is cancelled.
+	 */
+	private String getResourceHedged(final Map<String, String> parameters, final String resource, final long delay) {
+		final var completion = new ExecutorCompletionService<String>(EXECUTOR);
+		final var task = JenkinsCallEvent.inherit(JenkinsRateLimiter.inherit(() -> getResourceWithRetry(parameters, resource)));
+		final var first = completion.submit(task);
+		Future<String> second = null;
+		try {
+			var done = completion.poll(delay, TimeUnit.MILLISECONDS);
+			if (done == null) {
+				second = completion.submit(task);
+				done = completion.take();
+			}
+			return done.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Cancelled read of " + resource);
+		} catch (final ExecutionException e) {
+			return ExceptionUtils.rethrow(e.getCause());
+		} finally {
+			first.cancel(true);
+			if (second != null) {
+				second.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Return a Jenkins's resource. The connection errors and the <code>5xx</code> statuses are retried with a capped
+	 * and jittered exponential backoff.
+	 */
+	private String getResourceWithRetry(final Map<String, String> parameters, final String resource) {
+		final var retries = configuration.get(PARAMETER_RETRIES, DEFAULT_RETRIES);
+		final var url = Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/") + resource;
+		try (var curl = new JenkinsCurlProcessor(parameters)) {
+			for (var attempt = 0; ; attempt++) {
+				final var request = new CurlRequest(HttpMethod.GET, url, null);
+				request.setSaveResponse(true);
+				final var start = System.currentTimeMillis();
+				if (curl.process(request)) {
+					JenkinsLatency.record(parameters.get(PARAMETER_URL), System.currentTimeMillis() - start);
+					return request.getResponse();
+				}
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException("Cancelled read of " + resource);
+				}
+				final var status = request.getStatus();
+				if (attempt >= retries || status != 0 && status < HttpStatus.SC_SERVER_ERROR) {
+					return null;
+				}
+				final var backoff = Math.min(RETRY_MAX_DELAY, RETRY_DELAY << attempt);
+				Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+			}
+		} catch (final InterruptedException e) {
+			// Cancelled during the backoff
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Cancelled read of " + resource);
+		}
 	}
 
+	/**
+	 * Return the version from the {@value JenkinsCacheConfig#VERSIONS} cache, or from Jenkins when missing.
+	 */
 	@Override
 	public String getVersion(final Map<String, String> parameters) {
+		final var key = getVersionKey(parameters);
+		final var cached = getVersionCache().map(c -> c.get(key, String.class));
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+		final var version = getVersionNoCache(parameters);
+		if (version != null) {
+			getVersionCache().ifPresent(c -> c.put(key, version));
+		}
+		return version;
+	}
+
+	/**
+	 * Return the version from Jenkins.
+	 *
+	 * @param parameters The node parameters.
+	 * @return The version or <code>null</code> when not available.
+	 */
+	private String getVersionNoCache(final Map<String, String> parameters) {
 		// Check the user has enough rights to get the master configuration and
 		// get the master configuration and
 		return getResource(new JenkinsCurlProcessor(parameters, VERSION_CALLBACK), parameters.get(PARAMETER_URL),
 				"api/json?tree=numExecutors");
 	}
 
+	private String getVersionKey(final Map<String, String> parameters) {
+		return Strings.CS.appendIfMissing(parameters.get(PARAMETER_URL), "/") + "|" + parameters.get(PARAMETER_USER);
+	}
+
+	private Optional<Cache> getVersionCache() {
+		return Optional.ofNullable(cacheManager).map(m -> m.getCache(JenkinsCacheConfig.VERSIONS));
+	}
+
 	@Override
 	public void link(final int subscription) throws IOException, ParserConfigurationException, SAXException {
 		final var parameters = subscriptionResource.getParameters(subscription);
 
-		// Validate the node settings
-		validateAdminAccess(parameters);
+		// Validate the node and the job settings
+		final var steps = new Steps();
+		steps.submit(() -> validateAdminAccess(parameters));
+		steps.submit(() -> validateJob(parameters));
+		steps.await();
+	}
+
+	/**
+	 * Independent steps run concurrently. When a step fails, all the pending steps are cancelled and the failure of the
+	 * first failed step, in the submission order, is rethrown as is.
+	 */
+	private static final class Steps {
+		private final List<Future<?>> futures = new ArrayList<>();
+		private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+
+		/**
+		 * Start a step.
+		 *
+		 * @param step The step to run.
+		 * @param <T>  The result type.
+		 * @return The step's future, completed after {@link #await()}.
+		 */
+		private <T> Future<T> submit(final Callable<T> step) {
+			final var future = new FutureTask<>(JenkinsCallEvent.inherit(step)) {
+				@Override
+				protected void done() {
+					completed.add(this);
+				}
+			};
+			futures.add(future);
+			EXECUTOR.execute(future);
+			return future;
+		}
 
-		// Validate the job settings
-		validateJob(parameters);
+		/**
+		 * Wait for all the steps, or for the first failure.
+		 */
+		private void await() {
+			try {
+				for (var i = 0; i < futures.size(); i++) {
+					if (completed.take().state() == Future.State.FAILED) {
+						break;
+					}
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} finally {
+				futures.forEach(f -> f.cancel(true));
+			}
+			futures.stream().filter(f -> f.state() == Future.State.FAILED).findFirst()
+					.ifPresent(f -> ExceptionUtils.rethrow(f.exceptionNow()));
+		}
 	}
 
 	/**
@@ -433,10 +1890,11 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 
 		// Check the user has enough rights to get the master configuration and
 		// return the version
-		final var version = getVersion(parameters);
+		final var version = getVersionNoCache(parameters);
 		if (version == null) {
 			throw new ValidationJsonException(PARAMETER_USER, "jenkins-rights");
 		}
+		getVersionCache().ifPresent(c -> c.put(getVersionKey(parameters), version));
 		return version;
 	}
 
@@ -448,34 +1906,51 @@ public class JenkinsPluginResource extends AbstractToolPluginResource implements
 	 * @throws MalformedURLException When the Jenkins base URL is malformed.
 	 */
 	protected Job validateJob(final Map<String, String> parameters) throws IOException, ParserConfigurationException, SAXException {
-		final var job = parameters.get(PARAMETER_JOB);
-		final var jobAsXml = getResource(parameters,
-				"job/" + Streams.of(job.split("/")).map(this::encode).collect(Collectors.joining("/job/"))
-						+ "/api/xml?tree=" + XML_TEMPLATE_QUERY.replace(XML_RECURRING_MARKER, ",jobs[" + XML_TEMPLATE_QUERY).replace(XML_RECURRING_MARKER, "]"));
-		if (jobAsXml == null || "<hudson/>".equals(jobAsXml)) {
-			// Invalid couple PKEY and id
-			throw new ValidationJsonException(PARAMETER_JOB, "jenkins-job", job);
+		try (var ignored = JenkinsCallEvent.begin("validateJob", parameters.get(PARAMETER_URL))) {
+			final var job = parameters.get(PARAMETER_JOB);
+			final var jobAsXml = getResource(parameters,
+					toJobPath(job) + "/api/xml?tree=" + XML_TEMPLATE_QUERY.replace(XML_RECURRING_MARKER, ",jobs[" + XML_TEMPLATE_QUERY).replace(XML_RECURRING_MARKER, "]"));
+			if (jobAsXml == null || "<hudson/>".equals(jobAsXml)) {
+				// Invalid couple PKEY and id
+				throw new ValidationJsonException(PARAMETER_JOB, "jenkins-job", job);
+			}
+
+			final var start = System.nanoTime();
+			final var jobsAsInput = IOUtils.toInputStream(jobAsXml, StandardCharsets.UTF_8);
+			final var root = xml.parse(jobsAsInput).getDocumentElement();
+			final var result = newJob(root);
+			final int maxBranches = getMaxBranches(parameters);
+			result.setJobs(DomUtils.getChildElementsByTagName(root, "job").stream()
+					.map(this::newJob)
+					.filter(j -> !"disabled".equals(j.getStatus()))
+					.sorted((b1, b2) -> {
+						// Sort the branches by their activities
+						if (b1.getLastBuild() == null) {
+							return 1;
+						}
+						if (b2.getLastBuild() == null) {
+							return -1;
+						}
+						return (int) (b2.getLastBuild() - b1.getLastBuild());
+					})
+					.limit(maxBranches).toList());
+			JenkinsCallEvent.onParsed(1 + result.getJobs().size(), System.nanoTime() - start);
+			return result;
 		}
+	}
 
-		final var jobsAsInput = IOUtils.toInputStream(jobAsXml, StandardCharsets.UTF_8);
-		final var root = xml.parse(jobsAsInput).getDocumentElement();
-		final var result = newJob(root);
-		final int maxBranches = NumberUtils.toInt(getParameter(parameters, PARAMETER_MAX_BRANCHES, String.valueOf(DEFAULT_MAX_BRANCHES)));
-		result.setJobs(DomUtils.getChildElementsByTagName(root, "job").stream()
-				.map(this::newJob)
-				.filter(j -> !"disabled".equals(j.getStatus()))
-				.sorted((b1, b2) -> {
-					// Sort the branches by their activities
-					if (b1.getLastBuild() == null) {
-						return 1;
-					}
-					if (b2.getLastBuild() == null) {
-						return -1;
-					}
-					return (int) (b2.getLastBuild() - b1.getLastBuild());
-				})
-				.limit(maxBranches).toList());
-		return result;
+	/**
+	 * Return the job URL relative to the Jenkins base URL, traversing the parent folders.
+	 */
+	private String toJobPath(final String job) {
+		return "job/" + Streams.of(job.split("/")).map(this::encode).collect(Collectors.joining("/job/"));
+	}
+
+	/**
+	 * Return the maximum displayed branches of a job.
+	 */
+	private int getMaxBranches(final Map<String, String> parameters) {
+		return NumberUtils.toInt(getParameter(parameters, PARAMETER_MAX_BRANCHES, String.valueOf(DEFAULT_MAX_BRANCHES)));
 	}
 
 	private String getNodeContent(final Element root, final String tag) {
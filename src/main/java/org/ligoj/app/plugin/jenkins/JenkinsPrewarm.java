@@ -0,0 +1,116 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.ligoj.app.dao.NodeRepository;
+import org.ligoj.app.model.Node;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional background loader of the job trees of all Jenkins nodes, at startup and on a fixed delay. The loads are
+ * jittered and run by a bounded pool, and never block the application startup.
+ */
+@Component
+@Slf4j
+public class JenkinsPrewarm implements DisposableBean {
+
+	/**
+	 * When <code>true</code>, the job trees are loaded in background.
+	 */
+	@Value("${service-build-jenkins-prewarm:false}")
+	private boolean enabled;
+
+	/**
+	 * Delay in seconds between two loads of all nodes. Should be lower than the tree TTL.
+	 */
+	@Value("${service-build-jenkins-prewarm-interval:300}")
+	private int interval;
+
+	/**
+	 * Maximum concurrent node loads.
+	 */
+	@Value("${service-build-jenkins-prewarm-concurrency:2}")
+	private int concurrency;
+
+	/**
+	 * Maximum random delay in seconds added to each node load.
+	 */
+	@Value("${service-build-jenkins-prewarm-jitter:30}")
+	private int jitter;
+
+	@Autowired
+	protected NodeRepository nodeRepository;
+
+	@Autowired
+	protected JenkinsPluginResource resource;
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Start the background loads once the context is ready.
+	 *
+	 * @param event The refresh event.
+	 */
+	@EventListener
+	public synchronized void onContextRefreshed(final ContextRefreshedEvent event) {
+		if (enabled && scheduler == null) {
+			scheduler = Executors.newScheduledThreadPool(Math.max(1, concurrency), r -> {
+				final var thread = new Thread(r, "jenkins-prewarm");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(this::prewarm, 0, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Schedule the load of each Jenkins node with a random delay.
+	 */
+	protected void prewarm() {
+		try {
+			for (final var node : nodeRepository.findAllBy("refined.id", JenkinsPluginResource.KEY)) {
+				final var delay = jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter * 1000L) : 0;
+				scheduler.schedule(() -> prewarm(node), delay, TimeUnit.MILLISECONDS);
+			}
+		} catch (final RuntimeException e) {
+			// Keep the scheduling alive
+			log.warn("Unable to list the Jenkins nodes to prewarm", e);
+		}
+	}
+
+	/**
+	 * Load the job tree of a node.
+	 *
+	 * @param node The node to load.
+	 */
+	protected void prewarm(final Node node) {
+		try {
+			final var start = System.currentTimeMillis();
+			final var jobs = JenkinsRateLimiter.background(() -> resource.loadAllJobs(node.getId(), StringUtils.EMPTY));
+			log.info("Prewarmed {} Jenkins jobs of {} in {}ms", jobs.size(), node.getId(), System.currentTimeMillis() - start);
+		} catch (final Exception e) {
+			log.warn("Unable to prewarm the Jenkins jobs of {}: {}", node.getId(), e.getMessage());
+		}
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter of the outbound Jenkins requests, per Jenkins instance. The interactive requests have the
+ * priority: the background requests cannot consume the half of the burst, and wait while interactive requests wait.
+ */
+public final class JenkinsRateLimiter {
+
+	/**
+	 * Buckets by Jenkins base URL.
+	 */
+	static final Map<String, Bucket> BUCKETS = new ConcurrentHashMap<>();
+
+	/**
+	 * When <code>true</code>, the requests of the current thread are background requests.
+	 */
+	private static final ThreadLocal<Boolean> BACKGROUND = ThreadLocal.withInitial(() -> false);
+
+	private JenkinsRateLimiter() {
+		// Utility class
+	}
+
+	/**
+	 * Token bucket. The waiting threads are parked with a lock condition, so the waiting virtual threads release their
+	 * carrier.
+	 */
+	static class Bucket {
+		private final double rate;
+		private final double burst;
+		private final LongSupplier clock;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition available = lock.newCondition();
+		private double tokens;
+		private long refilled;
+		private int interactiveWaiting;
+
+		Bucket(final double rate, final double burst) {
+			this(rate, burst, System::nanoTime);
+		}
+
+		/**
+		 * Constructor with a clock.
+		 *
+		 * @param rate  The tokens per second.
+		 * @param burst The maximal amount of tokens.
+		 * @param clock The current time in nanoseconds.
+		 */
+		Bucket(final double rate, final double burst, final LongSupplier clock) {
+			this.rate = rate;
+			this.burst = burst;
+			this.clock = clock;
+			this.tokens = burst;
+			this.refilled = clock.getAsLong();
+		}
+
+		private void refill() {
+			final var now = clock.getAsLong();
+			tokens = Math.min(burst, tokens + (now - refilled) * rate / TimeUnit.SECONDS.toNanos(1));
+			refilled = now;
+		}
+
+		/**
+		 * Wait for a token.
+		 *
+		 * @param background When <code>true</code>, the half of the burst is reserved to the interactive requests.
+		 * @throws InterruptedException When interrupted while waiting.
+		 */
+		void acquire(final boolean background) throws InterruptedException {
+			final var reserve = background ? Math.floor(burst / 2) : 0;
+			lock.lockInterruptibly();
+			try {
+				if (!background) {
+					interactiveWaiting++;
+				}
+				try {
+					refill();
+					while (tokens < 1 + reserve || background && interactiveWaiting > 0) {
+						final var missing = Math.max(1, 1 + reserve - tokens);
+						available.awaitNanos(Math.max(1, (long) Math.ceil(missing * TimeUnit.SECONDS.toNanos(1) / rate)));
+						refill();
+					}
+					tokens--;
+				} finally {
+					if (!background) {
+						interactiveWaiting--;
+						available.signalAll();
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Return the amount of threads waiting for a token.
+		 *
+		 * @return The amount of waiting threads.
+		 */
+		int getWaiting() {
+			lock.lock();
+			try {
+				return lock.getWaitQueueLength(available);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Wait for the permission to send a request to the Jenkins instance of the given parameters. Without the
+	 * {@link JenkinsPluginResource#PARAMETER_RATE} parameter, there is no limit.
+	 *
+	 * @param parameters The node parameters.
+	 * @throws InterruptedIOException When interrupted while waiting: the request must not be sent.
+	 */
+	public static void acquire(final Map<String, String> parameters) throws InterruptedIOException {
+		final var rate = NumberUtils.toDouble(parameters.get(JenkinsPluginResource.PARAMETER_RATE), 0);
+		final var url = parameters.get(JenkinsPluginResource.PARAMETER_URL);
+		if (rate <= 0 || url == null) {
+			return;
+		}
+		final var burst = Math.max(1, NumberUtils.toDouble(parameters.get(JenkinsPluginResource.PARAMETER_BURST), rate));
+		final var bucket = BUCKETS.compute(Strings.CS.appendIfMissing(url, "/"),
+				// New or updated limits
+				(k, b) -> b == null || b.rate != rate || b.burst != burst ? new Bucket(rate, burst) : b);
+		try {
+			bucket.acquire(BACKGROUND.get());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Cancelled request to " + url);
+		}
+	}
+
+	/**
+	 * Return a task running with the priority of the current thread, to be run by another thread.
+	 *
+	 * @param task The task to run.
+	 * @param <T>  The result type.
+	 * @return The task inheriting the current priority.
+	 */
+	public static <T> Callable<T> inherit(final Callable<T> task) {
+		final var background = BACKGROUND.get();
+		return () -> {
+			BACKGROUND.set(background);
+			try {
+				return task.call();
+			} finally {
+				BACKGROUND.remove();
+			}
+		};
+	}
+
+	/**
+	 * Run a task with the background priority.
+	 *
+	 * @param task The task to run.
+	 * @param <T>  The result type.
+	 * @return The task's result.
+	 * @throws Exception The task's failure.
+	 */
+	public static <T> T background(final Callable<T> task) throws Exception {
+		final var previous = BACKGROUND.get();
+		BACKGROUND.set(true);
+		try {
+			return task.call();
+		} finally {
+			BACKGROUND.set(previous);
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.core.Response;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Cancellable job searches. A search is cancelled when its client disconnects, or when the same user runs another
+ * search with the same client token. The job tree loads are shared by the waiting searches and aborted when no search
+ * waits for them anymore. The cancelled tasks are interrupted, closing their in-flight Jenkins connection.
+ */
+@Component
+public class JenkinsSearches {
+
+	private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * A search, or a load, reading and parsing Jenkins resources.
+	 *
+	 * @param <T> The result type.
+	 */
+	@FunctionalInterface
+	public interface Search<T> {
+
+		/**
+		 * Run this search.
+		 *
+		 * @return The search result.
+		 * @throws SAXException                 When Jenkins content cannot be validated.
+		 * @throws IOException                  When Jenkins content cannot be read.
+		 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
+		 */
+		T call() throws SAXException, IOException, ParserConfigurationException;
+	}
+
+	/**
+	 * Load shared by the waiting searches.
+	 */
+	private static final class SharedLoad<T> {
+		private Future<T> future;
+		private int waiters;
+	}
+
+	/**
+	 * In-flight searches by user and client token.
+	 */
+	private final Map<String, Future<?>> searches = new ConcurrentHashMap<>();
+
+	/**
+	 * In-flight loads by key.
+	 */
+	private final Map<String, SharedLoad<?>> loads = new HashMap<>();
+
+	/**
+	 * Run a search, cancelling the previous search of the same key.
+	 *
+	 * @param key    The user and client token. When <code>null</code>, the search is run by the current thread.
+	 * @param search The search to run.
+	 * @param <T>    The result type.
+	 * @return The search result.
+	 * @throws CancellationException        When the search is superseded by another search of the same key.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
+	 */
+	public <T> T run(final String key, final Search<T> search)
+			throws SAXException, IOException, ParserConfigurationException {
+		if (key == null) {
+			return search.call();
+		}
+		final var future = submit(key, search, f -> {
+			// Nothing to notify, the caller waits for the result
+		});
+		try {
+			return get(future);
+		} catch (final InterruptedIOException e) {
+			future.cancel(true);
+			throw e;
+		}
+	}
+
+	/**
+	 * Run a search in background, cancelling the previous search of the same key, and resume the given response with
+	 * its result. The search is cancelled when the client disconnects. A superseded search is resumed with a
+	 * <code>409</code> status, and the failed search with its error.
+	 *
+	 * @param key      The optional user and client token.
+	 * @param search   The search to run.
+	 * @param response The suspended response of the search.
+	 * @param <T>      The result type.
+	 */
+	public <T> void run(final String key, final Search<T> search, final AsyncResponse response) {
+		final var future = submit(key, search, f -> resume(f, response));
+		response.register((ConnectionCallback) disconnected -> future.cancel(true));
+	}
+
+	/**
+	 * Resume the response with the result of a completed search.
+	 */
+	private <T> void resume(final Future<T> future, final AsyncResponse response) {
+		try {
+			response.resume(get(future));
+		} catch (final CancellationException e) {
+			// Superseded search, or disconnected client
+			response.resume(Response.status(Response.Status.CONFLICT).build());
+		} catch (final Exception e) {
+			response.resume(e);
+		}
+	}
+
+	/**
+	 * Start a search, cancelling the previous search of the same key.
+	 */
+	private <T> Future<T> submit(final String key, final Search<T> search, final Consumer<Future<T>> callback) {
+		final var task = new FutureTask<>(JenkinsCallEvent.inherit(JenkinsRateLimiter.inherit(search::call))) {
+			@Override
+			protected void done() {
+				if (key != null) {
+					searches.remove(key, this);
+				}
+				callback.accept(this);
+			}
+		};
+		if (key != null) {
+			Optional.ofNullable(searches.put(key, task)).ifPresent(f -> f.cancel(true));
+		}
+		EXECUTOR.execute(task);
+		return task;
+	}
+
+	/**
+	 * Wait for the result of a search or a load.
+	 */
+	private <T> T get(final Future<T> future) throws SAXException, IOException, ParserConfigurationException {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Cancelled search");
+		} catch (final ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+
+	/**
+	 * Throw the failure of a search or a load with its declared type.
+	 */
+	private IllegalStateException rethrow(final Throwable cause)
+			throws SAXException, IOException, ParserConfigurationException {
+		if (cause instanceof SAXException e) {
+			throw e;
+		}
+		if (cause instanceof IOException e) {
+			throw e;
+		}
+		if (cause instanceof ParserConfigurationException e) {
+			throw e;
+		}
+		if (cause instanceof RuntimeException e) {
+			throw e;
+		}
+		if (cause instanceof Error e) {
+			throw e;
+		}
+		return new IllegalStateException(cause);
+	}
+
+	/**
+	 * Cancel the in-flight search of the given key.
+	 *
+	 * @param key The user and client token.
+	 * @return <code>true</code> when a search has been cancelled.
+	 */
+	public boolean cancel(final String key) {
+		return Optional.ofNullable(searches.remove(key)).map(f -> f.cancel(true)).orElse(false);
+	}
+
+	/**
+	 * Return the amount of threads waiting for the in-flight load of the given key.
+	 *
+	 * @param key The load key.
+	 * @return The waiting threads, <code>0</code> when there is no in-flight load.
+	 */
+	int getWaiters(final String key) {
+		synchronized (loads) {
+			return Optional.ofNullable(loads.get(key)).map(l -> l.waiters).orElse(0);
+		}
+	}
+
+	/**
+	 * Wait for the in-flight load of the same key, or start it. The load is cancelled when no thread waits for it
+	 * anymore.
+	 *
+	 * @param key  The load key.
+	 * @param load The load to start.
+	 * @param <T>  The result type.
+	 * @return The load result.
+	 * @throws SAXException                 When Jenkins content cannot be validated.
+	 * @throws IOException                  When Jenkins content cannot be read, or when the current thread is
+	 *                                      interrupted while waiting.
+	 * @throws ParserConfigurationException When Jenkins content cannot be parsed.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T join(final String key, final Search<T> load)
+			throws SAXException, IOException, ParserConfigurationException {
+		final SharedLoad<T> shared;
+		synchronized (loads) {
+			shared = (SharedLoad<T>) loads.computeIfAbsent(key, k -> {
+				final var newLoad = new SharedLoad<T>();
+				newLoad.future = EXECUTOR.submit(JenkinsCallEvent.inherit(JenkinsRateLimiter.inherit(load::call)));
+				return newLoad;
+			});
+			shared.waiters++;
+		}
+		try {
+			return get(shared.future);
+		} finally {
+			synchronized (loads) {
+				if (--shared.waiters == 0) {
+					loads.remove(key, shared);
+					shared.future.cancel(true);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.ligoj.bootstrap.core.curl.CurlRequest;
+import org.ligoj.bootstrap.core.curl.HttpResponseCallback;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Callback exposing the Jenkins response headers before piping its body to an output stream provided later, such as
+ * a JAX-RS streaming output. The body is copied with a fixed buffer and is never held in memory. The request must be
+ * processed in another thread than the one calling {@link #getResponse(long)} and {@link #pipe(OutputStream)}.
+ */
+public class JenkinsStreamCallback implements HttpResponseCallback {
+
+	/**
+	 * Size of the copy buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	private final CompletableFuture<ClassicHttpResponse> response = new CompletableFuture<>();
+	private final CompletableFuture<OutputStream> output = new CompletableFuture<>();
+	private final CompletableFuture<Long> done = new CompletableFuture<>();
+
+	/**
+	 * Maximum duration in milliseconds to wait for the output stream.
+	 */
+	private final long timeout;
+
+	/**
+	 * Constructor with the maximum duration to wait for the output stream.
+	 *
+	 * @param timeout Maximum duration in milliseconds to wait for the output stream, after which the Jenkins response
+	 *                is released.
+	 */
+	public JenkinsStreamCallback(final long timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public boolean onResponse(final CurlRequest request, final ClassicHttpResponse response) throws IOException {
+		this.response.complete(response);
+		try {
+			final var out = output.get(timeout, TimeUnit.MILLISECONDS);
+			var copied = 0L;
+			final var entity = response.getEntity();
+			if (entity != null && out != null) {
+				try (var in = entity.getContent()) {
+					final var buffer = new byte[BUFFER_SIZE];
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						out.write(buffer, 0, read);
+						copied += read;
+					}
+					out.flush();
+				}
+			}
+			done.complete(copied);
+		} catch (final IOException e) {
+			done.completeExceptionally(e);
+			throw e;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			done.completeExceptionally(e);
+		} catch (final ExecutionException | TimeoutException e) {
+			// The body is not requested
+			done.completeExceptionally(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Release the waiting threads when the request has been processed without response, or with a discarded one.
+	 */
+	public void abort() {
+		response.completeExceptionally(new IOException("No Jenkins response"));
+		output.complete(null);
+		done.complete(0L);
+	}
+
+	/**
+	 * Wait for the Jenkins response headers.
+	 *
+	 * @param timeout Maximum duration in milliseconds to wait.
+	 * @return The Jenkins response with the headers, or <code>null</code> when not available.
+	 */
+	public ClassicHttpResponse getResponse(final long timeout) {
+		try {
+			return response.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (final ExecutionException | TimeoutException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the value of a header of the Jenkins response.
+	 *
+	 * @param name The header name.
+	 * @return The header value or <code>null</code>.
+	 */
+	public String getHeader(final String name) {
+		return Optional.ofNullable(response.getNow(null)).map(r -> r.getFirstHeader(name)).map(Header::getValue).orElse(null);
+	}
+
+	/**
+	 * Pipe the Jenkins response body to the given output and wait for the end of the copy.
+	 *
+	 * @param out The target output.
+	 * @throws IOException When the body cannot be copied.
+	 */
+	public void pipe(final OutputStream out) throws IOException {
+		output.complete(out);
+		try {
+			done.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (final ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.ligoj.bootstrap.core.curl.CurlRequest;
+import org.ligoj.bootstrap.core.curl.HttpResponseCallback;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Callback aggregating a Jenkins <code>testReport/api/xml</code> response while it is read. The test cases are
+ * counted and only the slowest failures are kept, so the memory does not depend on the report size.
+ */
+public class JenkinsTestReportCallback implements HttpResponseCallback {
+
+	private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+	static {
+		FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+
+	private static final Set<String> PASSED = Set.of("PASSED", "FIXED");
+
+	private static final Set<String> FAILED = Set.of("FAILED", "REGRESSION");
+
+	/**
+	 * Maximum kept failures.
+	 */
+	private final int max;
+
+	/**
+	 * The aggregated report, <code>null</code> until a successful response.
+	 */
+	@Getter
+	private TestReport report;
+
+	/**
+	 * Constructor with the maximum kept failures.
+	 *
+	 * @param max Maximum kept failures.
+	 */
+	public JenkinsTestReportCallback(final int max) {
+		this.max = max;
+	}
+
+	@Override
+	public boolean onResponse(final CurlRequest request, final ClassicHttpResponse response) throws IOException {
+		if (response.getCode() != HttpStatus.SC_OK || response.getEntity() == null) {
+			return false;
+		}
+		try (var in = response.getEntity().getContent()) {
+			report = aggregate(in);
+		} catch (final XMLStreamException e) {
+			throw new IOException(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Aggregate a test report.
+	 *
+	 * @param in The XML test report.
+	 * @return The report summary.
+	 * @throws XMLStreamException When the report cannot be parsed.
+	 */
+	public TestReport aggregate(final InputStream in) throws XMLStreamException {
+		final var result = new TestReport();
+		final var failures = new PriorityQueue<>(Comparator.comparingLong(TestCase::getDuration));
+		final var reader = FACTORY.createXMLStreamReader(in);
+		try {
+			TestCase current = null;
+			while (reader.hasNext()) {
+				final var event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					final var element = reader.getLocalName();
+					if ("case".equals(element)) {
+						current = new TestCase();
+					} else if (current != null) {
+						read(reader, element, current);
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT && "case".equals(reader.getLocalName())
+						&& current != null) {
+					count(result, failures, current);
+					current = null;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		result.setFailures(failures.stream().sorted(Comparator.comparingLong(TestCase::getDuration).reversed()).toList());
+		return result;
+	}
+
+	private void read(final XMLStreamReader reader, final String element, final TestCase test)
+			throws XMLStreamException {
+		switch (element) {
+			case "className" -> test.setClassName(reader.getElementText());
+			case "name" -> test.setName(reader.getElementText());
+			case "status" -> test.setStatus(reader.getElementText());
+			case "duration" -> test.setDuration(Math.round(NumberUtils.toDouble(reader.getElementText()) * 1000));
+			default -> {
+				// Not requested
+			}
+		}
+	}
+
+	private void count(final TestReport result, final PriorityQueue<TestCase> failures, final TestCase test) {
+		if (PASSED.contains(test.getStatus())) {
+			result.setPassCount(result.getPassCount() + 1);
+		} else if (FAILED.contains(test.getStatus())) {
+			result.setFailCount(result.getFailCount() + 1);
+			if (max > 0) {
+				// Bounded heap of the slowest failures
+				failures.add(test);
+				if (failures.size() > max) {
+					failures.poll();
+				}
+			}
+		} else {
+			result.setSkipCount(result.getSkipCount() + 1);
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the parsed job trees, keyed by node and view. The decoded trees are kept in memory, and shared with the
+ * cluster through the {@value JenkinsCacheConfig#TREES} cache: each shared tree comes with its load time, so a replica
+ * only decodes the trees newer than its own. When a snapshot directory is configured, the trees are also persisted on
+ * disk and lazily reloaded after a restart.
+ */
+@Component
+@Slf4j
+public class JenkinsTreeCache {
+
+	/**
+	 * Cached job tree with its load time.
+	 *
+	 * @param jobs   The job tree snapshot.
+	 * @param loaded The time in milliseconds this tree has been loaded from Jenkins.
+	 */
+	private record Entry(JobSnapshot jobs, long loaded) {
+	}
+
+	/**
+	 * Marker of a key without persisted snapshot.
+	 */
+	private static final Entry NONE = new Entry(null, 0);
+
+	/**
+	 * Extension of the persisted snapshots.
+	 */
+	private static final String SNAPSHOT_EXTENSION = ".bin.gz";
+
+	/**
+	 * Encoded separator of the node and the view in the name of the persisted snapshots.
+	 */
+	private static final String KEY_SEPARATOR = URLEncoder.encode("|", StandardCharsets.UTF_8);
+
+	/**
+	 * Optional directory of the persisted snapshots. When empty, the trees are only kept in memory.
+	 */
+	@Value("${service-build-jenkins-snapshot-dir:}")
+	private String directory;
+
+	/**
+	 * Optional cluster cache manager. When <code>null</code>, the trees are not shared.
+	 */
+	@Autowired(required = false)
+	private CacheManager cacheManager;
+
+	private final Map<String, Entry> trees = new ConcurrentHashMap<>();
+
+	private String toKey(final String node, final String view) {
+		return node + "|" + view;
+	}
+
+	/**
+	 * Return the shared key of the load time of a tree.
+	 */
+	private String toLoadedKey(final String key) {
+		return key + "|loaded";
+	}
+
+	/**
+	 * Return the cached job tree when loaded from Jenkins less than the given duration ago.
+	 *
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 * @param ttl  The maximum age in milliseconds of the cached tree.
+	 * @return The job tree snapshot or <code>null</code> when missing or expired.
+	 */
+	public JobSnapshot get(final String node, final String view, final long ttl) {
+		final var key = toKey(node, view);
+		var entry = getEntry(key);
+		if (isExpired(entry, ttl) && readSharedLoaded(key) > entry.loaded()) {
+			// Another replica has refreshed this tree
+			final var shared = readShared(key);
+			if (shared.loaded() > entry.loaded()) {
+				entry = trees.merge(key, shared, (e1, e2) -> e2.loaded() > e1.loaded() ? e2 : e1);
+			}
+		}
+		return isExpired(entry, ttl) ? null : entry.jobs();
+	}
+
+	private boolean isExpired(final Entry entry, final long ttl) {
+		return entry.jobs() == null || entry.loaded() + ttl < System.currentTimeMillis();
+	}
+
+	/**
+	 * Return the cached job tree whatever its age.
+	 *
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 * @return The job tree snapshot or <code>null</code> when missing.
+	 */
+	public JobSnapshot getStale(final String node, final String view) {
+		return getEntry(toKey(node, view)).jobs();
+	}
+
+	/**
+	 * Return the entry from the memory, or from the cluster or the disk on the first access. The slow reads are made
+	 * out of the map lock, the first read entry being kept.
+	 */
+	private Entry getEntry(final String key) {
+		final var entry = trees.get(key);
+		if (entry != null) {
+			return entry;
+		}
+		final var shared = readShared(key);
+		final var loaded = shared.jobs() == null ? read(key) : shared;
+		return Optional.ofNullable(trees.putIfAbsent(key, loaded)).orElse(loaded);
+	}
+
+	/**
+	 * Cache a job tree freshly loaded from Jenkins.
+	 *
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 * @param jobs The job tree snapshot.
+	 */
+	public void put(final String node, final String view, final JobSnapshot jobs) {
+		final var key = toKey(node, view);
+		final var entry = new Entry(jobs, System.currentTimeMillis());
+		trees.put(key, entry);
+		getShared().ifPresent(c -> {
+			c.put(key, encode(entry));
+			c.put(toLoadedKey(key), entry.loaded());
+		});
+		write(key, entry);
+	}
+
+	/**
+	 * Remove the cached tree from the memory, the cluster and the disk.
+	 *
+	 * @param node The node identifier.
+	 * @param view The view URL, may be empty.
+	 */
+	public void evict(final String node, final String view) {
+		final var key = toKey(node, view);
+		trees.remove(key);
+		getShared().ifPresent(c -> {
+			c.evict(key);
+			c.evict(toLoadedKey(key));
+		});
+		getDirectory().ifPresent(d -> FileUtils.deleteQuietly(toFile(d, key).toFile()));
+	}
+
+	/**
+	 * Remove all cached trees, including the shared and the persisted ones. The other files of the snapshot directory
+	 * are kept.
+	 */
+	public void clear() {
+		trees.clear();
+		getShared().ifPresent(Cache::clear);
+		getDirectory().filter(Files::isDirectory).ifPresent(d -> {
+			try (var files = Files.list(d)) {
+				files.filter(this::isSnapshot).forEach(f -> FileUtils.deleteQuietly(f.toFile()));
+			} catch (final IOException e) {
+				log.warn("Unable to delete the Jenkins snapshots of {}: {}", d, e.getMessage());
+			}
+		});
+	}
+
+	private Optional<Cache> getShared() {
+		return Optional.ofNullable(cacheManager).map(m -> m.getCache(JenkinsCacheConfig.TREES));
+	}
+
+	/**
+	 * Read the load time of the tree shared by the cluster, without reading the tree.
+	 */
+	private long readSharedLoaded(final String key) {
+		return getShared().map(c -> c.get(toLoadedKey(key), Long.class)).orElse(0L);
+	}
+
+	/**
+	 * Read the tree shared by the cluster.
+	 */
+	private Entry readShared(final String key) {
+		return getShared().map(c -> c.get(key, byte[].class)).map(this::decode).orElse(NONE);
+	}
+
+	/**
+	 * Encode the entry as its load time followed by the compressed snapshot.
+	 */
+	private byte[] encode(final Entry entry) {
+		final var bytes = new ByteArrayOutputStream();
+		try (var out = new DataOutputStream(bytes)) {
+			out.writeLong(entry.loaded());
+			try (var gzip = new GZIPOutputStream(out)) {
+				entry.jobs().write(gzip);
+			}
+		} catch (final IOException e) {
+			// Cannot occur in memory
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private Entry decode(final byte[] bytes) {
+		try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			final var loaded = in.readLong();
+			final var jobs = JobSnapshot.read(new GZIPInputStream(in));
+			return jobs == null ? NONE : new Entry(jobs, loaded);
+		} catch (final IOException e) {
+			log.warn("Unreadable shared Jenkins snapshot: {}", e.getMessage());
+			return NONE;
+		}
+	}
+
+	private Optional<Path> getDirectory() {
+		return Optional.ofNullable(StringUtils.trimToNull(directory)).map(Path::of);
+	}
+
+	private Path toFile(final Path directory, final String key) {
+		return directory.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8) + SNAPSHOT_EXTENSION);
+	}
+
+	/**
+	 * Indicate the file is named as a persisted snapshot: an encoded node and view key.
+	 */
+	private boolean isSnapshot(final Path file) {
+		final var name = file.getFileName().toString();
+		return name.endsWith(SNAPSHOT_EXTENSION) && name.contains(KEY_SEPARATOR);
+	}
+
+	/**
+	 * Read the persisted snapshot. The last modification time of the file is the load time.
+	 */
+	private Entry read(final String key) {
+		final var file = getDirectory().map(d -> toFile(d, key)).filter(Files::isReadable);
+		if (file.isEmpty()) {
+			return NONE;
+		}
+		try (var in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.get())))) {
+			final var jobs = JobSnapshot.read(in);
+			if (jobs != null) {
+				return new Entry(jobs, Files.getLastModifiedTime(file.get()).toMillis());
+			}
+			log.info("Ignored Jenkins snapshot {} of an unsupported version", file.get());
+		} catch (final IOException e) {
+			log.warn("Unreadable Jenkins snapshot {}: {}", file.get(), e.getMessage());
+		}
+		return NONE;
+	}
+
+	/**
+	 * Persist the snapshot, replacing atomically the previous one.
+	 */
+	private void write(final String key, final Entry entry) {
+		getDirectory().ifPresent(d -> {
+			try {
+				Files.createDirectories(d);
+				final var temp = Files.createTempFile(d, "snapshot", ".tmp");
+				try {
+					try (var out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+						entry.jobs().write(out);
+					}
+					Files.move(temp, toFile(d, key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					// Moved, or left by a failure
+					Files.deleteIfExists(temp);
+				}
+			} catch (final IOException e) {
+				log.warn("Unable to persist the Jenkins snapshot {}: {}", key, e.getMessage());
+			}
+		});
+	}
+}
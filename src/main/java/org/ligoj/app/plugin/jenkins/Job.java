@@ -35,4 +35,9 @@ public class Job extends DescribedBean<String> {
 	private boolean pullRequestBranch;
 
 	private Long lastBuild;
+
+	/**
+	 * Optional node hosting this job.
+	 */
+	private String node;
 }
@@ -0,0 +1,360 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact and immutable snapshot of a Jenkins job tree. The statuses and the folder prefixes are interned, the
+ * timestamps are kept in primitive arrays and the hierarchy is encoded with parent indexes. {@link Job} instances are
+ * only created for the returned jobs.
+ */
+public class JobSnapshot {
+
+	/**
+	 * Marker of a missing last build timestamp.
+	 */
+	private static final long NO_BUILD = Long.MIN_VALUE;
+
+	/**
+	 * Binary format marker.
+	 */
+	private static final int MAGIC = 0x4A4E4B53;
+
+	/**
+	 * Binary format version.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Node hosting these jobs.
+	 */
+	@Getter
+	private final String node;
+
+	private final String[] prefixTable;
+	private final String[] statusTable;
+	private final int[] prefixes;
+	private final String[] localNames;
+
+	/**
+	 * Display names, <code>null</code> when equal to the local name.
+	 */
+	private final String[] names;
+
+	/**
+	 * Jobs having a display name equal to their local name.
+	 */
+	private final BitSet sameNames;
+	private final String[] descriptions;
+	private final byte[] statuses;
+	private final BitSet building;
+	private final BitSet pullRequests;
+	private final long[] lastBuilds;
+	private final int[] parents;
+
+	private JobSnapshot(final String node, final Builder builder) {
+		final var size = builder.size;
+		this.node = node;
+		this.prefixTable = builder.prefixTable.toArray(String[]::new);
+		this.statusTable = builder.statusTable.toArray(String[]::new);
+		this.prefixes = Arrays.copyOf(builder.prefixes, size);
+		this.localNames = Arrays.copyOf(builder.localNames, size);
+		this.names = Arrays.copyOf(builder.names, size);
+		this.sameNames = builder.sameNames;
+		this.descriptions = Arrays.copyOf(builder.descriptions, size);
+		this.statuses = Arrays.copyOf(builder.statuses, size);
+		this.building = builder.building;
+		this.pullRequests = builder.pullRequests;
+		this.lastBuilds = Arrays.copyOf(builder.lastBuilds, size);
+		this.parents = Arrays.copyOf(builder.parents, size);
+	}
+
+	private JobSnapshot(final DataInputStream in) throws IOException {
+		this.node = readString(in);
+		this.prefixTable = readStrings(in, in.readInt());
+		this.statusTable = readStrings(in, in.readInt());
+		final var size = in.readInt();
+		this.prefixes = new int[size];
+		this.statuses = new byte[size];
+		this.lastBuilds = new long[size];
+		this.parents = new int[size];
+		for (var i = 0; i < size; i++) {
+			prefixes[i] = in.readInt();
+			statuses[i] = in.readByte();
+			lastBuilds[i] = in.readLong();
+			parents[i] = in.readInt();
+		}
+		this.localNames = readStrings(in, size);
+		this.names = readStrings(in, size);
+		this.descriptions = readStrings(in, size);
+		this.sameNames = BitSet.valueOf(in.readNBytes(in.readInt()));
+		this.building = BitSet.valueOf(in.readNBytes(in.readInt()));
+		this.pullRequests = BitSet.valueOf(in.readNBytes(in.readInt()));
+	}
+
+	/**
+	 * Write this snapshot in the versioned binary format.
+	 *
+	 * @param output The target stream. Not closed.
+	 * @throws IOException When the stream cannot be written.
+	 */
+	public void write(final OutputStream output) throws IOException {
+		final var out = new DataOutputStream(output);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeString(out, node);
+		writeStrings(out, prefixTable, true);
+		writeStrings(out, statusTable, true);
+		out.writeInt(size());
+		for (var i = 0; i < size(); i++) {
+			out.writeInt(prefixes[i]);
+			out.writeByte(statuses[i]);
+			out.writeLong(lastBuilds[i]);
+			out.writeInt(parents[i]);
+		}
+		writeStrings(out, localNames, false);
+		writeStrings(out, names, false);
+		writeStrings(out, descriptions, false);
+		for (final var bits : List.of(sameNames, building, pullRequests)) {
+			final var bytes = bits.toByteArray();
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Read a snapshot written by {@link #write(OutputStream)}.
+	 *
+	 * @param input The source stream. Not closed.
+	 * @return The read snapshot or <code>null</code> when the format or the version is not supported.
+	 * @throws IOException When the stream cannot be read.
+	 */
+	public static JobSnapshot read(final InputStream input) throws IOException {
+		final var in = new DataInputStream(input);
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			return null;
+		}
+		return new JobSnapshot(in);
+	}
+
+	private static void writeStrings(final DataOutputStream out, final String[] values, final boolean length)
+			throws IOException {
+		if (length) {
+			out.writeInt(values.length);
+		}
+		for (final var value : values) {
+			writeString(out, value);
+		}
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			final var bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String[] readStrings(final DataInputStream in, final int size) throws IOException {
+		final var values = new String[size];
+		for (var i = 0; i < size; i++) {
+			values[i] = readString(in);
+		}
+		return values;
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		final var length = in.readInt();
+		return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Return the amount of jobs.
+	 *
+	 * @return The amount of jobs.
+	 */
+	public int size() {
+		return parents.length;
+	}
+
+	/**
+	 * Return the job identifier, including the parent folders.
+	 *
+	 * @param index The job index.
+	 * @return The job identifier. May be <code>null</code> for the root.
+	 */
+	public String getId(final int index) {
+		final var prefix = prefixTable[prefixes[index]];
+		return prefix.isEmpty() || localNames[index] == null ? localNames[index] : prefix + "/" + localNames[index];
+	}
+
+	/**
+	 * Return the job display name.
+	 *
+	 * @param index The job index.
+	 * @return The job display name.
+	 */
+	public String getName(final int index) {
+		return sameNames.get(index) ? localNames[index] : names[index];
+	}
+
+	/**
+	 * Return the job description.
+	 *
+	 * @param index The job index.
+	 * @return The job description.
+	 */
+	public String getDescription(final int index) {
+		return descriptions[index];
+	}
+
+	/**
+	 * Return the parent job index.
+	 *
+	 * @param index The job index.
+	 * @return The parent job index, <code>-1</code> for the root.
+	 */
+	public int getParent(final int index) {
+		return parents[index];
+	}
+
+	/**
+	 * Return the nesting depth of this tree.
+	 *
+	 * @return The maximum nesting level, <code>1</code> for the jobs without parent and <code>0</code> without job.
+	 */
+	public int getDepth() {
+		final var depths = new int[size()];
+		var max = 0;
+		for (var i = 0; i < size(); i++) {
+			// The parents are added before their children
+			depths[i] = parents[i] < 0 ? 1 : depths[parents[i]] + 1;
+			max = Math.max(max, depths[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * Return a new {@link Job} from the given index, without the sub-jobs.
+	 *
+	 * @param index The job index.
+	 * @return The new job.
+	 */
+	public Job toJob(final int index) {
+		final var job = new Job();
+		job.setId(getId(index));
+		job.setName(getName(index));
+		job.setDescription(descriptions[index]);
+		job.setStatus(statusTable[statuses[index] & 0xFF]);
+		job.setBuilding(building.get(index));
+		job.setPullRequestBranch(pullRequests.get(index));
+		job.setLastBuild(lastBuilds[index] == NO_BUILD ? null : lastBuilds[index]);
+		job.setNode(node);
+		return job;
+	}
+
+	/**
+	 * Snapshot builder, adding the jobs in tree order.
+	 */
+	public static class Builder {
+		private final List<String> prefixTable = new ArrayList<>();
+		private final Map<String, Integer> prefixIndex = new HashMap<>();
+		private final List<String> statusTable = new ArrayList<>();
+		private final Map<String, Integer> statusIndex = new HashMap<>();
+		private int size;
+		private int[] prefixes = new int[64];
+		private String[] localNames = new String[64];
+		private String[] names = new String[64];
+		private String[] descriptions = new String[64];
+		private byte[] statuses = new byte[64];
+		private final BitSet sameNames = new BitSet();
+		private final BitSet building = new BitSet();
+		private final BitSet pullRequests = new BitSet();
+		private long[] lastBuilds = new long[64];
+		private int[] parents = new int[64];
+
+		private int intern(final List<String> table, final Map<String, Integer> index, final String value) {
+			return index.computeIfAbsent(value, v -> {
+				table.add(v);
+				return table.size() - 1;
+			});
+		}
+
+		private void grow() {
+			final var capacity = parents.length * 2;
+			prefixes = Arrays.copyOf(prefixes, capacity);
+			localNames = Arrays.copyOf(localNames, capacity);
+			names = Arrays.copyOf(names, capacity);
+			descriptions = Arrays.copyOf(descriptions, capacity);
+			statuses = Arrays.copyOf(statuses, capacity);
+			lastBuilds = Arrays.copyOf(lastBuilds, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+		}
+
+		/**
+		 * Add a job.
+		 *
+		 * @param parent        The parent job index, <code>-1</code> for the root.
+		 * @param id            The job identifier, including the parent folders.
+		 * @param name          The display name.
+		 * @param description   The description.
+		 * @param status        The status, without the building suffix.
+		 * @param building      When <code>true</code>, the job is building.
+		 * @param pullRequest   When <code>true</code>, this branch is related to a PR.
+		 * @param lastBuild     The last build timestamp, may be <code>null</code>.
+		 * @return The index of the added job.
+		 */
+		public int add(final int parent, final String id, final String name, final String description,
+				final String status, final boolean building, final boolean pullRequest, final Long lastBuild) {
+			if (size == parents.length) {
+				grow();
+			}
+			final var index = size++;
+			final var folder = id != null && id.contains("/");
+			final var localName = folder ? StringUtils.substringAfterLast(id, "/") : id;
+			prefixes[index] = intern(prefixTable, prefixIndex, folder ? StringUtils.substringBeforeLast(id, "/") : "");
+			localNames[index] = localName;
+			if (name != null && name.equals(localName)) {
+				sameNames.set(index);
+			} else {
+				names[index] = name;
+			}
+			descriptions[index] = description;
+			statuses[index] = (byte) intern(statusTable, statusIndex, status);
+			this.building.set(index, building);
+			this.pullRequests.set(index, pullRequest);
+			lastBuilds[index] = lastBuild == null ? NO_BUILD : lastBuild;
+			parents[index] = parent;
+			return index;
+		}
+
+		/**
+		 * Build the snapshot.
+		 *
+		 * @param node The node hosting these jobs.
+		 * @return The new snapshot.
+		 */
+		public JobSnapshot build(final String node) {
+			return new JobSnapshot(node, this);
+		}
+	}
+}
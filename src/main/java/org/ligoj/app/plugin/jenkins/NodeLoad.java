@@ -0,0 +1,51 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Executors and queue load of a Jenkins node.
+ */
+@Getter
+@Setter
+public class NodeLoad {
+
+	private String node;
+
+	/**
+	 * Executors of the online agents, including the built-in node.
+	 */
+	private int executors;
+
+	private int busy;
+
+	private int idle;
+
+	/**
+	 * Amount of agents, including the built-in node.
+	 */
+	private int agents;
+
+	/**
+	 * Amount of offline agents, including the temporarily offline ones.
+	 */
+	private int offline;
+
+	/**
+	 * Amount of queued items.
+	 */
+	private int queue;
+
+	/**
+	 * Amount of queued items waiting for a long time.
+	 */
+	private int stuck;
+
+	/**
+	 * Time in milliseconds this load has been read from Jenkins.
+	 */
+	private long loaded;
+}
@@ -0,0 +1,19 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Pipeline run with its stages.
+ */
+@Getter
+@Setter
+public class Pipeline extends Stage {
+
+	private List<Stage> stages;
+}
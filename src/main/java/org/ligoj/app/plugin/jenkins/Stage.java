@@ -0,0 +1,38 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Pipeline stage, or the pipeline run itself.
+ */
+@Getter
+@Setter
+public class Stage {
+
+	/**
+	 * Flow node identifier of this stage, or the build number of the run.
+	 */
+	private String id;
+
+	private String name;
+
+	/**
+	 * Stage status, such as <code>SUCCESS</code>, <code>FAILED</code>, <code>IN_PROGRESS</code> or
+	 * <code>PAUSED_PENDING_INPUT</code>.
+	 */
+	private String status;
+
+	/**
+	 * Start timestamp.
+	 */
+	private long startTime;
+
+	/**
+	 * Duration in milliseconds.
+	 */
+	private long duration;
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Test case of a Jenkins test report.
+ */
+@Getter
+@Setter
+public class TestCase {
+
+	private String className;
+
+	private String name;
+
+	/**
+	 * Test status, such as <code>PASSED</code>, <code>FIXED</code>, <code>FAILED</code>, <code>REGRESSION</code> or
+	 * <code>SKIPPED</code>.
+	 */
+	private String status;
+
+	/**
+	 * Duration in milliseconds.
+	 */
+	private long duration;
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Test report summary of a build.
+ */
+@Getter
+@Setter
+public class TestReport {
+
+	private int build;
+
+	private int passCount;
+
+	private int failCount;
+
+	private int skipCount;
+
+	/**
+	 * The slowest failed test cases, the slowest first.
+	 */
+	private List<TestCase> failures;
+}
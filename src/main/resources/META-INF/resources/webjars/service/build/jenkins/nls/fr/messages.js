@@ -15,8 +15,17 @@ define({
 	'service:build:jenkins:building': 'En construction',
 	'service:build:jenkins:template-job': 'Modèle de tâche',
 	'service:build:jenkins:template-job-description': 'Nom de la tâche qui sert de modèle pour créer la nouvelle tâche',
+	'service:build:jenkins:webhook-secret': 'Secret des notifications',
+	'service:build:jenkins:webhook-secret-description': 'Secret partagé des notifications de tâches envoyées par Jenkins',
+	'service:build:jenkins:rate': 'Limite de requêtes',
+	'service:build:jenkins:rate-description': 'Nombre maximal de requêtes par seconde envoyées à cette instance Jenkins',
+	'service:build:jenkins:burst': 'Rafale',
+	'service:build:jenkins:burst-description': 'Nombre maximal de requêtes envoyées d\'un coup, par défaut la limite de requêtes',
 	'jenkins-build-job-success': 'Lancement du job {{this}} effectué',
 	'error': {
+		'jenkins-test-report': 'Rapport de tests non trouvé',
+		'jenkins-artifact': 'Artefact non trouvé',
+		'jenkins-build': 'Build non trouvé',
 		'jenkins-job': 'Tâche non trouvée',
 		'jenkins-connection': 'Serveur inatteignable',
 		'jenkins-login': 'Échec de l\'authentification',
@@ -16,8 +16,17 @@ define({
 		'service:build:jenkins:building': 'Building',
 		'service:build:jenkins:template-job': 'Template job',
 		'service:build:jenkins:template-job-description': 'Name of job used as a template to create the new job',
+		'service:build:jenkins:webhook-secret': 'Webhook secret',
+		'service:build:jenkins:webhook-secret-description': 'Shared secret of the job notifications sent by Jenkins',
+		'service:build:jenkins:rate': 'Rate limit',
+		'service:build:jenkins:rate-description': 'Maximal amount of requests per second sent to this Jenkins instance',
+		'service:build:jenkins:burst': 'Burst',
+		'service:build:jenkins:burst-description': 'Maximal amount of requests sent at once, defaults to the rate limit',
 		'jenkins-build-job-success': 'Launching the job {{this}} succeed',
 		'error': {
+			'jenkins-test-report': 'Test report not found',
+			'jenkins-artifact': 'Artifact not found',
+			'jenkins-build': 'Build not found',
 			'jenkins-job': 'Job not found',
 			'jenkins-connection': 'Unreachable server',
 			'jenkins-login': 'Authentication failed',
@@ -0,0 +1,59 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Test class of {@link BuildHistory}
+ */
+class BuildHistoryTest {
+
+	@Test
+	void add() {
+		final var history = new BuildHistory(3);
+		Assertions.assertEquals(0, history.getLastNumber());
+		Assertions.assertTrue(history.toList().isEmpty());
+		for (var i = 1; i <= 5; i++) {
+			history.add(i, i % 2 == 0 ? "FAILURE" : "any", i * 10L, 1693000000000L + i);
+		}
+		Assertions.assertEquals(3, history.getSize());
+		Assertions.assertEquals(3, history.getCapacity());
+		Assertions.assertEquals(5, history.getLastNumber());
+
+		final var builds = history.toList();
+		Assertions.assertEquals(3, builds.size());
+		Assertions.assertEquals(5, builds.getFirst().getNumber());
+		Assertions.assertNull(builds.getFirst().getResult());
+		Assertions.assertEquals(50, builds.getFirst().getDuration());
+		Assertions.assertEquals(1693000000005L, builds.getFirst().getTimestamp());
+		Assertions.assertEquals(4, builds.get(1).getNumber());
+		Assertions.assertEquals("FAILURE", builds.get(1).getResult());
+		Assertions.assertEquals(3, builds.get(2).getNumber());
+	}
+
+	@Test
+	void addOlder() {
+		final var history = new BuildHistory(3);
+		history.add(2, "SUCCESS", 20, 1693000000002L);
+		history.add(4, "SUCCESS", 40, 1693000000004L);
+
+		// Completed after a more recent build
+		history.add(3, "FAILURE", 30, 1693000000003L);
+		history.add(3, "FAILURE", 30, 1693000000003L);
+		Assertions.assertEquals(List.of(4, 3, 2), history.toList().stream().map(Build::getNumber).toList());
+		Assertions.assertEquals("FAILURE", history.toList().get(1).getResult());
+		Assertions.assertEquals(4, history.getLastNumber());
+
+		// The oldest build is overwritten
+		history.add(5, "SUCCESS", 50, 1693000000005L);
+		history.add(1, "SUCCESS", 10, 1693000000001L);
+		Assertions.assertEquals(List.of(5, 4, 3), history.toList().stream().map(Build::getNumber).toList());
+		history.add(4, "SUCCESS", 40, 1693000000004L);
+		Assertions.assertEquals(3, history.getSize());
+	}
+}
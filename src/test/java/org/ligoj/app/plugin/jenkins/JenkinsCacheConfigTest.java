@@ -0,0 +1,40 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.hazelcast.cache.HazelcastCacheManager;
+import com.hazelcast.config.CacheConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.expiry.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class of {@link JenkinsCacheConfig}
+ */
+class JenkinsCacheConfigTest {
+
+	@Test
+	void onCreate() {
+		final var cacheManager = Mockito.mock(HazelcastCacheManager.class);
+		final var configs = new HashMap<String, CacheConfig<?, ?>>();
+		final var config = new JenkinsCacheConfig();
+		ReflectionTestUtils.setField(config, "jobsTtl", 60L);
+		config.onCreate(cacheManager, name -> configs.computeIfAbsent(name, CacheConfig::new));
+
+		Assertions.assertEquals(3, configs.size());
+		Assertions.assertEquals(new Duration(TimeUnit.DAYS, 1), getTtl(configs.get(JenkinsCacheConfig.TREES)));
+		Assertions.assertEquals(new Duration(TimeUnit.MINUTES, 1), getTtl(configs.get(JenkinsCacheConfig.JOBS)));
+		Assertions.assertEquals(new Duration(TimeUnit.HOURS, 1), getTtl(configs.get(JenkinsCacheConfig.VERSIONS)));
+		Mockito.verify(cacheManager).createCache(JenkinsCacheConfig.TREES, configs.get(JenkinsCacheConfig.TREES));
+	}
+
+	private Duration getTtl(final CacheConfig<?, ?> config) {
+		return config.getExpiryPolicyFactory().create().getExpiryForCreation();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ligoj.bootstrap.core.curl.CurlRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Test class of {@link JenkinsCallEvent}
+ */
+class JenkinsCallEventTest {
+
+	private static final String NAME = "org.ligoj.app.plugin.jenkins.Call";
+
+	@Test
+	void record(@TempDir final Path directory) throws IOException {
+		final List<RecordedEvent> events;
+		try (var recording = new Recording()) {
+			recording.enable(NAME).withThreshold(Duration.ZERO);
+			recording.start();
+			try (var ignored = JenkinsCallEvent.begin("findAllByName", "service:build:jenkins:bpr")) {
+				try (var ignored2 = JenkinsCallEvent.begin("getResource", "http://localhost:8120")) {
+					JenkinsCallEvent.onRequest(new CurlRequest("GET", "http://localhost:8120/api/xml?tree=jobs[name]", null), 2000);
+				}
+				JenkinsCallEvent.onParsed(4, 1000);
+			}
+			recording.stop();
+			final var file = directory.resolve("recording.jfr");
+			recording.dump(file);
+			events = RecordingFile.readAllEvents(file);
+		}
+		Assertions.assertEquals(2, events.size());
+		final var inner = events.getFirst();
+		Assertions.assertEquals("getResource", inner.getString("operation"));
+		Assertions.assertEquals("http://localhost:8120", inner.getString("node"));
+		Assertions.assertEquals("http://localhost:8120/api/xml", inner.getString("url"));
+		Assertions.assertEquals(1, inner.getInt("requests"));
+		Assertions.assertEquals(2000, inner.getDuration("network").toNanos());
+		Assertions.assertEquals(0, inner.getInt("jobs"));
+
+		// Measures accumulated in the enclosing operation
+		final var outer = events.get(1);
+		Assertions.assertEquals("findAllByName", outer.getString("operation"));
+		Assertions.assertEquals("service:build:jenkins:bpr", outer.getString("node"));
+		Assertions.assertEquals("http://localhost:8120/api/xml", outer.getString("url"));
+		Assertions.assertEquals(1, outer.getInt("requests"));
+		Assertions.assertEquals(2000, outer.getDuration("network").toNanos());
+		Assertions.assertEquals(4, outer.getInt("jobs"));
+		Assertions.assertEquals(1000, outer.getDuration("parsing").toNanos());
+	}
+
+	@Test
+	void recordConcurrent(@TempDir final Path directory) throws Exception {
+		final List<RecordedEvent> events;
+		try (var recording = new Recording()) {
+			recording.enable(NAME).withThreshold(Duration.ZERO);
+			recording.start();
+			try (var ignored = JenkinsCallEvent.begin("getResource", "http://localhost:8120")) {
+				// Concurrent attempts closed by the inheriting threads
+				final var attempt = JenkinsCallEvent.inherit(() -> {
+					for (var i = 0; i < 100; i++) {
+						try (var ignored2 = JenkinsCallEvent.begin("attempt", "http://localhost:8120")) {
+							JenkinsCallEvent.onRequest(new CurlRequest("GET", "http://localhost:8120/api/xml", null), 10);
+							JenkinsCallEvent.onParsed(1, 10);
+						}
+					}
+					return null;
+				});
+				try (var executor = Executors.newFixedThreadPool(8)) {
+					for (final var future : executor.invokeAll(Collections.nCopies(8, attempt))) {
+						future.get();
+					}
+				}
+			}
+			recording.stop();
+			final var file = directory.resolve("recording.jfr");
+			recording.dump(file);
+			events = RecordingFile.readAllEvents(file);
+		}
+
+		// No lost measure
+		final var outer = events.stream().filter(e -> "getResource".equals(e.getString("operation"))).findFirst()
+				.orElseThrow();
+		Assertions.assertEquals(800, outer.getInt("requests"));
+		Assertions.assertEquals(800, outer.getInt("jobs"));
+		Assertions.assertEquals(8000, outer.getDuration("network").toNanos());
+		Assertions.assertEquals(8000, outer.getDuration("parsing").toNanos());
+	}
+
+	@Test
+	void recordDisabled() {
+		// Nothing is measured
+		try (var ignored = JenkinsCallEvent.begin("build", "http://localhost:8120")) {
+			JenkinsCallEvent.onParsed(1, 1000);
+		}
+		JenkinsCallEvent.onRequest(new CurlRequest("GET", "http://localhost:8120/api/xml", null), 1000);
+	}
+}
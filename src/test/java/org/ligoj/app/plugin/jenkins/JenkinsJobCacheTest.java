@@ -0,0 +1,70 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Test class of {@link JenkinsJobCache}
+ */
+class JenkinsJobCacheTest {
+
+	private static final String URL = "http://localhost:8120";
+
+	private final JenkinsJobCache cache = new JenkinsJobCache();
+
+	private Job newJob(final String id) {
+		final var job = new Job();
+		job.setId(id);
+		job.setLastBuild(0L);
+		return job;
+	}
+
+	@Test
+	void getMaxBranches() {
+		cache.put(URL, 10, newJob("ligoj"));
+		Assertions.assertEquals("ligoj", cache.get(URL, "ligoj", 10, 60000).getId());
+
+		// Another branch limit is another entry
+		Assertions.assertNull(cache.get(URL, "ligoj", 5, 60000));
+		cache.evict(URL, "ligoj", 10);
+		Assertions.assertNull(cache.get(URL, "ligoj", 10, 60000));
+	}
+
+	@Test
+	void update() {
+		final var parent = newJob("folder");
+		parent.setJobs(List.of(newJob("main"), newJob("PR-1")));
+		cache.put(URL, 10, parent);
+		cache.put(URL, 10, newJob("folder/main"));
+		Assertions.assertEquals(2, cache.update(URL, "folder/main", 10, j -> j.setBuilding(true)));
+		Assertions.assertTrue(cache.get(URL, "folder/main", 10, 60000).isBuilding());
+		final var branches = cache.get(URL, "folder", 10, 60000).getJobs();
+		Assertions.assertTrue(branches.getFirst().isBuilding());
+		Assertions.assertFalse(branches.get(1).isBuilding());
+
+		// Not cached
+		Assertions.assertEquals(0, cache.update(URL, "other", 10, j -> j.setBuilding(true)));
+	}
+
+	@Test
+	void updateConcurrent() throws Exception {
+		cache.put(URL, 10, newJob("ligoj"));
+
+		// No lost update
+		final var updates = IntStream.range(0, 8).mapToObj(i -> CompletableFuture.runAsync(() -> {
+			for (var j = 0; j < 100; j++) {
+				cache.update(URL, "ligoj", 10, job -> job.setLastBuild(job.getLastBuild() + 1));
+			}
+		})).toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(updates).get(30, TimeUnit.SECONDS);
+		Assertions.assertEquals(800L, cache.get(URL, "ligoj", 10, 60000).getLastBuild());
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class of {@link JenkinsLatency}
+ */
+class JenkinsLatencyTest {
+
+	private static final String URL = "http://localhost:8120";
+
+	@BeforeEach
+	void clear() {
+		JenkinsLatency.SAMPLES.clear();
+	}
+
+	@Test
+	void percentile() {
+		for (var i = 1; i <= 200; i++) {
+			JenkinsLatency.record(URL, i % 100 + 1L);
+		}
+		Assertions.assertEquals(96, JenkinsLatency.percentile(URL, 95));
+		Assertions.assertEquals(51, JenkinsLatency.percentile(URL + "/", 50));
+		Assertions.assertEquals(100, JenkinsLatency.percentile(URL, 100));
+		Assertions.assertEquals(100, JenkinsLatency.percentile(URL, 200));
+	}
+
+	@Test
+	void percentileNotEnoughSamples() {
+		for (var i = 1; i < JenkinsLatency.MIN_SAMPLES; i++) {
+			JenkinsLatency.record(URL, i);
+		}
+		Assertions.assertEquals(-1, JenkinsLatency.percentile(URL, 95));
+		JenkinsLatency.record(URL, 100);
+		Assertions.assertEquals(100, JenkinsLatency.percentile(URL, 95));
+	}
+
+	@Test
+	void percentileDisabled() {
+		for (var i = 1; i <= JenkinsLatency.MIN_SAMPLES; i++) {
+			JenkinsLatency.record(URL, i);
+		}
+		JenkinsLatency.record(null, 1);
+		Assertions.assertEquals(-1, JenkinsLatency.percentile(URL, 0));
+		Assertions.assertEquals(-1, JenkinsLatency.percentile(null, 95));
+		Assertions.assertEquals(-1, JenkinsLatency.percentile("http://localhost:8121", 95));
+	}
+}
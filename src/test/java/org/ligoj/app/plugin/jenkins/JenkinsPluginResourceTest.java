@@ -3,8 +3,13 @@
  */
 package org.ligoj.app.plugin.jenkins;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.core5.http.HttpStatus;
 import org.junit.jupiter.api.Assertions;
@@ -12,6 +17,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ligoj.app.AbstractServerTest;
+import org.ligoj.app.dao.ProjectRepository;
 import org.ligoj.app.iam.model.DelegateOrg;
 import org.ligoj.app.model.*;
 import org.ligoj.app.plugin.build.BuildResource;
@@ -23,6 +29,7 @@ import org.ligoj.bootstrap.core.validation.ValidationJsonException;
 import org.ligoj.bootstrap.resource.system.configuration.ConfigurationResource;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ContextConfiguration;
@@ -30,13 +37,21 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 
 /**
  * Test class of {@link JenkinsPluginResource}
@@ -58,6 +73,24 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 	@Autowired
 	private ConfigurationResource configurationResource;
 
+	@Autowired
+	private JenkinsJobCache jobCache;
+
+	@Autowired
+	private JenkinsTreeCache treeCache;
+
+	@Autowired
+	private JenkinsPrewarm prewarm;
+
+	@Autowired
+	private JenkinsLoadMonitor loadMonitor;
+
+	@Autowired
+	private JenkinsNodeParameters nodeParameters;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
 	protected int subscription;
 
 	@BeforeEach
@@ -67,6 +100,12 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 				ParameterValue.class, DelegateOrg.class}, StandardCharsets.UTF_8);
 		this.subscription = getSubscription("Jupiter");
 		configurationResource.put(JenkinsPluginResource.PARAMETER_MAX_DEPTH, "2");
+		jobCache.clear();
+		treeCache.clear();
+		loadMonitor.clear();
+		nodeParameters.clear();
+		JenkinsLatency.SAMPLES.clear();
+		JenkinsCurlProcessor.CRUMBS.clear();
 
 		// Coverage only
 		Assertions.assertEquals("service:build:jenkins", resource.getKey());
@@ -116,6 +155,144 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		Assertions.assertThrows(BusinessException.class, () -> resource.delete(subscription, true));
 	}
 
+	@Test
+	void deleteAll() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/doDelete")).willReturn(
+				aResponse().withHeader("location", "location").withStatus(HttpStatus.SC_MOVED_TEMPORARILY)));
+		httpServer.stubFor(post(urlEqualTo("/job/gone/doDelete")).willReturn(aResponse().withStatus(HttpStatus.SC_NOT_FOUND)));
+		httpServer.stubFor(post(urlEqualTo("/job/locked/doDelete")).willReturn(aResponse().withStatus(HttpStatus.SC_FORBIDDEN)));
+		httpServer.start();
+		final var gone = newSubscription("gone");
+		final var locked = newSubscription("locked");
+
+		final var report = resource.deleteAll(List.of(subscription, gone, locked, gone));
+		Assertions.assertEquals(3, report.size());
+		Assertions.assertEquals(JenkinsPluginResource.DELETED, report.get(subscription));
+		Assertions.assertEquals(JenkinsPluginResource.ABSENT, report.get(gone));
+		Assertions.assertNotNull(report.get(locked));
+
+		// The node is validated once
+		httpServer.verify(1, getRequestedFor(urlEqualTo("/login")));
+	}
+
+	@Test
+	void deleteAllUnknown() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/doDelete")).willReturn(
+				aResponse().withHeader("location", "location").withStatus(HttpStatus.SC_MOVED_TEMPORARILY)));
+		httpServer.start();
+
+		// The unknown subscription is reported, the other ones are deleted
+		final var report = resource.deleteAll(List.of(-1, subscription));
+		Assertions.assertEquals(List.of(-1, subscription), List.copyOf(report.keySet()));
+		Assertions.assertNotNull(report.get(-1));
+		Assertions.assertNotEquals(JenkinsPluginResource.DELETED, report.get(-1));
+		Assertions.assertEquals(JenkinsPluginResource.DELETED, report.get(subscription));
+	}
+
+	@Test
+	void deleteAllNotManaged() {
+		httpServer.start();
+		final var resource = newResource();
+		resource.projectRepository = Mockito.mock(ProjectRepository.class);
+
+		final var report = resource.deleteAll(List.of(subscription));
+		Assertions.assertEquals(String.valueOf(subscription), report.get(subscription));
+		httpServer.verify(0, getRequestedFor(urlEqualTo("/login")));
+		httpServer.verify(0, WireMock.postRequestedFor(urlPathMatching(".*/doDelete")));
+	}
+
+	@Test
+	void deleteAllInvalidNode() {
+		httpServer.start();
+		final var gone = newSubscription("gone");
+
+		final var report = resource.deleteAll(List.of(subscription, gone));
+		Assertions.assertEquals(2, report.size());
+		Assertions.assertNotEquals(JenkinsPluginResource.DELETED, report.get(subscription));
+		Assertions.assertEquals(report.get(subscription), report.get(gone));
+		httpServer.verify(0, WireMock.postRequestedFor(urlPathMatching(".*/doDelete")));
+	}
+
+	/**
+	 * Create a subscription to the given job, in the same project and node.
+	 */
+	private int newSubscription(final String job) {
+		final var source = em.find(Subscription.class, this.subscription);
+		final var subscription = new Subscription();
+		subscription.setProject(source.getProject());
+		subscription.setNode(source.getNode());
+		em.persist(subscription);
+		final var parameterValue = new ParameterValue();
+		parameterValue.setParameter(em.find(Parameter.class, JenkinsPluginResource.PARAMETER_JOB));
+		parameterValue.setData(job);
+		parameterValue.setSubscription(subscription);
+		em.persist(parameterValue);
+		em.flush();
+		return subscription.getId();
+	}
+
+	@Test
+	void getResourceRetry() {
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).inScenario("retry").whenScenarioStateIs(STARTED)
+				.willSetStateTo("available").willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).inScenario("retry").whenScenarioStateIs("available")
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("<hudson/>")));
+		httpServer.start();
+		final var parameters = pvResource.getNodeParameters("service:build:jenkins:bpr");
+		Assertions.assertEquals("<hudson/>", resource.getResource(parameters, "api/xml"));
+		httpServer.verify(2, getRequestedFor(urlEqualTo("/api/xml")));
+	}
+
+	@Test
+	void getResourceNoRetry() {
+		configurationResource.put(JenkinsPluginResource.PARAMETER_RETRIES, "5");
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).willReturn(aResponse().withStatus(HttpStatus.SC_NOT_FOUND)));
+		httpServer.start();
+		final var parameters = pvResource.getNodeParameters("service:build:jenkins:bpr");
+		Assertions.assertNull(resource.getResource(parameters, "api/xml"));
+		httpServer.verify(1, getRequestedFor(urlEqualTo("/api/xml")));
+	}
+
+	@Test
+	void getResourceHedged() {
+		configurationResource.put(JenkinsPluginResource.PARAMETER_HEDGE_PERCENTILE, "95");
+		for (var i = 0; i < JenkinsLatency.MIN_SAMPLES; i++) {
+			JenkinsLatency.record("http://localhost:8120", 10);
+		}
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).inScenario("hedge").whenScenarioStateIs(STARTED)
+				.willSetStateTo("hedged").willReturn(aResponse().withStatus(HttpStatus.SC_OK).withFixedDelay(3000).withBody("<slow/>")));
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).inScenario("hedge").whenScenarioStateIs("hedged")
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("<hudson/>")));
+		httpServer.start();
+		final var parameters = pvResource.getNodeParameters("service:build:jenkins:bpr");
+
+		// The stalled read is hedged after 50ms: the response of the second request is kept without waiting for the first
+		Assertions.assertEquals("<hudson/>", resource.getResource(parameters, "api/xml"));
+		httpServer.verify(2, getRequestedFor(urlEqualTo("/api/xml")));
+		Assertions.assertEquals("hedged", httpServer.getAllScenarios().getFirst().getState());
+	}
+
+	@Test
+	void getResourceInterrupted() {
+		httpServer.stubFor(get(urlEqualTo("/api/xml")).willReturn(aResponse().withStatus(HttpStatus.SC_NOT_FOUND)));
+		httpServer.start();
+		final var parameters = pvResource.getNodeParameters("service:build:jenkins:bpr");
+		Assertions.assertNull(resource.getResource(parameters, "api/xml"));
+
+		// The interrupted read is not reported as a missing resource
+		Thread.currentThread().interrupt();
+		try {
+			Assertions.assertThrows(CancellationException.class, () -> resource.getResource(parameters, "api/xml"));
+			Assertions.assertTrue(Thread.currentThread().isInterrupted());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
 	@Test
 	void getJenkinsResourceInvalidUrl() {
 		resource.getResource(new HashMap<>(), null);
@@ -129,6 +306,15 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		Assertions.assertEquals("1.574", version);
 	}
 
+	@Test
+	void getVersionCached() throws Exception {
+		addAdminAccess();
+		httpServer.start();
+		Assertions.assertEquals("1.574", resource.getVersion(subscription));
+		Assertions.assertEquals("1.574", resource.getVersion(subscription));
+		httpServer.verify(lessThanOrExactly(1), getRequestedFor(urlEqualTo("/api/json?tree=numExecutors")));
+	}
+
 	@Test
 	void getLastVersion() {
 		final var lastVersion = resource.getLastVersion();
@@ -194,6 +380,86 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		// Nothing to validate for now...
 	}
 
+	@Test
+	void linkConcurrent() throws IOException, ParserConfigurationException, SAXException {
+		// Each validation waits for the other one to be started: the validations are not chained
+		final var started = new CountDownLatch(2);
+		final var resource = new JenkinsPluginResource() {
+			@Override
+			protected String validateAdminAccess(final Map<String, String> parameters) {
+				return awaitStarted(started, "1.574");
+			}
+
+			@Override
+			protected Job validateJob(final Map<String, String> parameters) {
+				return awaitStarted(started, new Job());
+			}
+		};
+		applicationContext.getAutowireCapableBeanFactory().autowireBean(resource);
+		resource.link(subscription);
+	}
+
+	/**
+	 * Count down the started steps and wait for the other ones.
+	 */
+	private <T> T awaitStarted(final CountDownLatch started, final T result) {
+		started.countDown();
+		try {
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		return result;
+	}
+
+	@Test
+	void linkFailedCancelled() throws InterruptedException {
+		// The failed job validation cancels the pending admin validation
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var resource = new JenkinsPluginResource() {
+			@Override
+			protected String validateAdminAccess(final Map<String, String> parameters) {
+				started.countDown();
+				try {
+					// Slow validation, only released by the test
+					release.await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+				}
+				return null;
+			}
+
+			@Override
+			protected Job validateJob(final Map<String, String> parameters) {
+				try {
+					Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new ValidationJsonException(JenkinsPluginResource.PARAMETER_JOB, "jenkins-job");
+			}
+		};
+		applicationContext.getAutowireCapableBeanFactory().autowireBean(resource);
+		try {
+			MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+					() -> resource.link(subscription)), JenkinsPluginResource.PARAMETER_JOB, "jenkins-job");
+			Assertions.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void linkFailedConnection() {
+		// Both validations fail, the first one is reported
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.link(subscription)), JenkinsPluginResource.PARAMETER_URL, "jenkins-connection");
+	}
+
 	@Test
 	void validateJob() throws IOException, ParserConfigurationException, SAXException {
 		addJobAccess();
@@ -255,6 +521,356 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		Assertions.assertEquals(1693000000000L, job.getJobs().get(1).getLastBuild());
 	}
 
+	@Test
+	void getBuildHistory() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("lastBuild[number],lastCompletedBuild[number]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+						.withBody("{\"lastBuild\":{\"number\":3},\"lastCompletedBuild\":{\"number\":2}}")));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,3}"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"builds\":["
+						+ "{\"number\":3,\"building\":true,\"result\":null,\"duration\":0,\"timestamp\":1693000000003},"
+						+ "{\"number\":2,\"building\":false,\"result\":\"FAILURE\",\"duration\":20,\"timestamp\":1693000000002},"
+						+ "{\"number\":1,\"building\":false,\"result\":\"SUCCESS\",\"duration\":10,\"timestamp\":1693000000001}]}")));
+		httpServer.start();
+
+		final var builds = resource.getBuildHistory(subscription);
+		Assertions.assertEquals(2, builds.size());
+		Assertions.assertEquals(2, builds.getFirst().getNumber());
+		Assertions.assertEquals("FAILURE", builds.getFirst().getResult());
+		Assertions.assertEquals(20, builds.getFirst().getDuration());
+		Assertions.assertEquals(1693000000002L, builds.getFirst().getTimestamp());
+		Assertions.assertEquals("SUCCESS", builds.get(1).getResult());
+
+		// No Jenkins call within the TTL
+		Assertions.assertEquals(2, resource.getBuildHistory(subscription).size());
+		httpServer.verify(2, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+
+		// Only the high-water mark is checked when nothing has changed
+		configurationResource.put(JenkinsPluginResource.PARAMETER_HISTORY_TTL, "-1");
+		Assertions.assertEquals(2, resource.getBuildHistory(subscription).size());
+		httpServer.verify(3, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+	}
+
+	@Test
+	void getBuildHistoryNotified() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("lastBuild[number],lastCompletedBuild[number]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+						.withBody("{\"lastBuild\":{\"number\":1},\"lastCompletedBuild\":{\"number\":1}}")));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,1}"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"builds\":["
+						+ "{\"number\":1,\"building\":false,\"result\":\"SUCCESS\",\"duration\":10,\"timestamp\":1693000000001}]}")));
+		httpServer.start();
+		addWebhookSecret();
+		Assertions.assertEquals(1, resource.getBuildHistory(subscription).size());
+		httpServer.verify(2, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+
+		// A completed build is checked within the TTL
+		final var notification = new JenkinsNotification();
+		notification.setUrl("job/ligoj-bootstrap/");
+		final var build = new JenkinsNotification.Build();
+		build.setPhase("COMPLETED");
+		build.setStatus("SUCCESS");
+		notification.setBuild(build);
+		resource.notification("service:build:jenkins:bpr", "secret", notification);
+		Assertions.assertEquals(1, resource.getBuildHistory(subscription).size());
+		httpServer.verify(3, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+
+		// Back to the TTL
+		Assertions.assertEquals(1, resource.getBuildHistory(subscription).size());
+		httpServer.verify(3, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+	}
+
+	@Test
+	void getBuildHistoryDeleted() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/doDelete")).willReturn(
+				aResponse().withHeader("location", "location").withStatus(HttpStatus.SC_MOVED_TEMPORARILY)));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("lastBuild[number],lastCompletedBuild[number]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+						.withBody("{\"lastBuild\":{\"number\":1},\"lastCompletedBuild\":{\"number\":1}}")));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,1}"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"builds\":["
+						+ "{\"number\":1,\"building\":false,\"result\":\"SUCCESS\",\"duration\":10,\"timestamp\":1693000000001}]}")));
+		httpServer.start();
+		Assertions.assertEquals(1, resource.getBuildHistory(subscription).size());
+		httpServer.verify(2, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+
+		// The history of the deleted job is not kept
+		resource.delete(subscription, true);
+		Assertions.assertEquals(1, resource.getBuildHistory(subscription).size());
+		httpServer.verify(4, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+	}
+
+	@Test
+	void getBuildHistoryCompletedLater() throws IOException {
+		configurationResource.put(JenkinsPluginResource.PARAMETER_HISTORY_TTL, "-1");
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("lastBuild[number],lastCompletedBuild[number]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+						.withBody("{\"lastBuild\":{\"number\":3},\"lastCompletedBuild\":{\"number\":3}}")));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,3}"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"builds\":["
+						+ "{\"number\":3,\"building\":false,\"result\":\"SUCCESS\",\"duration\":30,\"timestamp\":1693000000003},"
+						+ "{\"number\":2,\"building\":true,\"result\":null,\"duration\":0,\"timestamp\":1693000000002},"
+						+ "{\"number\":1,\"building\":false,\"result\":\"SUCCESS\",\"duration\":10,\"timestamp\":1693000000001}]}")));
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,2}"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"builds\":["
+						+ "{\"number\":3,\"building\":false,\"result\":\"SUCCESS\",\"duration\":30,\"timestamp\":1693000000003},"
+						+ "{\"number\":2,\"building\":false,\"result\":\"FAILURE\",\"duration\":20,\"timestamp\":1693000000002}]}")));
+		httpServer.start();
+		Assertions.assertEquals(List.of(3, 1),
+				resource.getBuildHistory(subscription).stream().map(Build::getNumber).toList());
+
+		// The build 2 completed after the build 3, the builds are requested down to the build 2
+		Assertions.assertEquals(List.of(3, 2, 1),
+				resource.getBuildHistory(subscription).stream().map(Build::getNumber).toList());
+		httpServer.verify(getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json"))
+				.withQueryParam("tree", equalTo("builds[number,building,result,duration,timestamp]{0,2}")));
+
+		// Nothing is running anymore
+		resource.getBuildHistory(subscription);
+		httpServer.verify(5, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/json")));
+	}
+
+	@Test
+	void getBuildHistoryNotFound() {
+		configurationResource.put(JenkinsPluginResource.PARAMETER_HISTORY_TTL, "-1");
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getBuildHistory(subscription)), JenkinsPluginResource.PARAMETER_JOB, "jenkins-job");
+	}
+
+	@Test
+	void getStages() throws IOException {
+		final var describe = urlEqualTo("/job/ligoj-bootstrap/5/wfapi/describe");
+		final var stage = urlEqualTo("/job/ligoj-bootstrap/5/execution/node/12/wfapi/describe");
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/api/json?tree=lastBuild[number]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"lastBuild\":{\"number\":5}}")));
+		httpServer.stubFor(get(describe).inScenario("stages").whenScenarioStateIs(STARTED).willReturn(aResponse()
+				.withStatus(HttpStatus.SC_OK).withBody("{\"id\":\"5\",\"name\":\"#5\",\"status\":\"IN_PROGRESS\","
+						+ "\"startTimeMillis\":1000,\"durationMillis\":300,\"stages\":["
+						+ "{\"id\":\"6\",\"name\":\"Build\",\"status\":\"SUCCESS\",\"startTimeMillis\":1000,\"durationMillis\":100},"
+						+ "{\"id\":\"12\",\"name\":\"Test\",\"status\":\"IN_PROGRESS\",\"startTimeMillis\":1100,\"durationMillis\":200}]}")));
+		httpServer.stubFor(get(stage).inScenario("stages").whenScenarioStateIs(STARTED).willSetStateTo("tested")
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"id\":\"12\",\"name\":\"Test\","
+						+ "\"status\":\"IN_PROGRESS\",\"startTimeMillis\":1100,\"durationMillis\":400,\"stageFlowNodes\":[]}")));
+		httpServer.stubFor(get(stage).inScenario("stages").whenScenarioStateIs("tested").willReturn(aResponse()
+				.withStatus(HttpStatus.SC_OK).withBody("{\"id\":\"12\",\"name\":\"Test\",\"status\":\"SUCCESS\"}")));
+		httpServer.stubFor(get(describe).inScenario("stages").whenScenarioStateIs("tested").willReturn(aResponse()
+				.withStatus(HttpStatus.SC_OK).withBody("{\"id\":\"5\",\"status\":\"SUCCESS\",\"startTimeMillis\":1000,"
+						+ "\"durationMillis\":600,\"stages\":[{\"id\":\"6\",\"status\":\"SUCCESS\"},{\"id\":\"12\",\"status\":\"SUCCESS\"}]}")));
+		httpServer.start();
+
+		var pipeline = resource.getStages(subscription, "lastBuild");
+		Assertions.assertEquals("5", pipeline.getId());
+		Assertions.assertEquals("IN_PROGRESS", pipeline.getStatus());
+		Assertions.assertEquals(2, pipeline.getStages().size());
+		Assertions.assertEquals("Build", pipeline.getStages().getFirst().getName());
+		Assertions.assertEquals(100, pipeline.getStages().getFirst().getDuration());
+		Assertions.assertEquals("IN_PROGRESS", pipeline.getStages().get(1).getStatus());
+
+		// Only the running stage is described again, in a new run
+		final var first = pipeline;
+		final var firstDuration = first.getStages().get(1).getDuration();
+		pipeline = resource.getStages(subscription, "5");
+		Assertions.assertNotSame(first, pipeline);
+		Assertions.assertEquals(firstDuration, first.getStages().get(1).getDuration());
+		Assertions.assertEquals(400, pipeline.getStages().get(1).getDuration());
+		Assertions.assertEquals(500, pipeline.getDuration());
+		httpServer.verify(1, getRequestedFor(describe));
+		httpServer.verify(1, getRequestedFor(stage));
+
+		// The running stage is completed, the run is described again
+		pipeline = resource.getStages(subscription, "5");
+		Assertions.assertEquals("SUCCESS", pipeline.getStatus());
+		Assertions.assertEquals("SUCCESS", pipeline.getStages().get(1).getStatus());
+		httpServer.verify(2, getRequestedFor(describe));
+
+		// The completed run is cached
+		resource.getStages(subscription, "5");
+		httpServer.verify(2, getRequestedFor(describe));
+		httpServer.verify(2, getRequestedFor(stage));
+	}
+
+	@Test
+	void getStagesNotFound() {
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getStages(subscription, "lastBuild")), JenkinsPluginResource.PARAMETER_JOB, "jenkins-build");
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getStages(subscription, "404")), JenkinsPluginResource.PARAMETER_JOB, "jenkins-build");
+	}
+
+	@Test
+	void getTestReport() throws IOException {
+		final var report = urlEqualTo("/job/ligoj-bootstrap/7/testReport/api/xml?tree=suites[cases[className,name,duration,status]]");
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/lastCompletedBuild/api/json?tree=number,building"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"number\":7,\"building\":false}")));
+		httpServer.stubFor(get(report).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withBody("<testResult><suite><case><className>org.sample.SampleTest</className><duration>0.5</duration>"
+						+ "<name>test</name><status>FAILED</status></case><case><status>PASSED</status></case></suite></testResult>")));
+		httpServer.start();
+
+		final var summary = resource.getTestReport(subscription, "lastCompletedBuild");
+		Assertions.assertEquals(7, summary.getBuild());
+		Assertions.assertEquals(1, summary.getPassCount());
+		Assertions.assertEquals(1, summary.getFailCount());
+		Assertions.assertEquals(500, summary.getFailures().getFirst().getDuration());
+
+		// The summary of a completed build is cached
+		Assertions.assertSame(summary, resource.getTestReport(subscription, "7"));
+		Assertions.assertSame(summary, resource.getTestReport(subscription, "lastCompletedBuild"));
+		httpServer.verify(1, getRequestedFor(report));
+	}
+
+	@Test
+	void getTestReportBuilding() throws IOException {
+		final var report = urlPathEqualTo("/job/ligoj-bootstrap/8/testReport/api/xml");
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/8/api/json"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"number\":8,\"building\":true}")));
+		httpServer.stubFor(get(report).willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("<testResult/>")));
+		httpServer.start();
+
+		Assertions.assertEquals(0, resource.getTestReport(subscription, "8").getPassCount());
+		resource.getTestReport(subscription, "8");
+		httpServer.verify(2, getRequestedFor(report));
+	}
+
+	@Test
+	void getTestReportNotFound() {
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/9/api/json"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"number\":9,\"building\":false}")));
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getTestReport(subscription, "9")), JenkinsPluginResource.PARAMETER_JOB, "jenkins-test-report");
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getTestReport(subscription, "10")), JenkinsPluginResource.PARAMETER_JOB, "jenkins-build");
+	}
+
+	@Test
+	void getConsole() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/2/logText/progressiveText"))
+				.withQueryParam("start", equalTo("10")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+						.withHeader("X-Text-Size", "24").withHeader("X-More-Data", "true").withBody("Building step 2")));
+		httpServer.start();
+
+		final var response = resource.getConsole(subscription, "2", 10);
+		Assertions.assertEquals("24", response.getHeaderString("X-Text-Size"));
+		Assertions.assertEquals("true", response.getHeaderString("X-More-Data"));
+		final var out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		Assertions.assertEquals("Building step 2", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void getConsoleNotFound() {
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getConsole(subscription, "lastBuild", 0)), JenkinsPluginResource.PARAMETER_JOB, "jenkins-build");
+	}
+
+	@Test
+	void getArtifacts() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/job/ligoj-bootstrap/lastSuccessfulBuild/api/json"))
+				.withQueryParam("tree", equalTo("artifacts[fileName,relativePath]"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("{\"artifacts\":["
+						+ "{\"displayPath\":\"app.jar\",\"fileName\":\"app.jar\",\"relativePath\":\"target/app.jar\"}]}")));
+		httpServer.start();
+
+		final var artifacts = resource.getArtifacts(subscription, "lastSuccessfulBuild");
+		Assertions.assertEquals(1, artifacts.size());
+		Assertions.assertEquals("app.jar", artifacts.getFirst().getFileName());
+		Assertions.assertEquals("target/app.jar", artifacts.getFirst().getRelativePath());
+	}
+
+	@Test
+	void getArtifactsNotFound() {
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getArtifacts(subscription, "2")), JenkinsPluginResource.PARAMETER_JOB, "jenkins-build");
+	}
+
+	@Test
+	void getArtifact() throws IOException {
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/2/artifact/target/app%20v1.jar"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withHeader("Content-Type", "application/java-archive")
+						.withBody("0123456789")));
+		httpServer.start();
+
+		final var response = resource.getArtifact(subscription, "2", "target/app v1.jar", null);
+		Assertions.assertEquals(HttpStatus.SC_OK, response.getStatus());
+		Assertions.assertEquals("10", response.getHeaderString("Content-Length"));
+		Assertions.assertEquals("application/java-archive", response.getHeaderString("Content-Type"));
+		Assertions.assertEquals("attachment; filename=\"app v1.jar\"; filename*=UTF-8''app%20v1.jar",
+				response.getHeaderString("Content-Disposition"));
+		final var out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		Assertions.assertEquals("0123456789", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void getArtifactEscapedName() {
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/2/artifact/x%22y%0D%0Az%C3%A9.jar"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody("0123456789")));
+		httpServer.start();
+
+		// No header injection, the exact name is encoded
+		final var response = resource.getArtifact(subscription, "2", "x\"y\r\nzé.jar", null);
+		Assertions.assertEquals("attachment; filename=\"x_y__z_.jar\"; filename*=UTF-8''x%22y%0D%0Az%C3%A9.jar",
+				response.getHeaderString("Content-Disposition"));
+	}
+
+	@Test
+	void getArtifactRange() throws IOException {
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/2/artifact/app.jar")).withHeader("Range", equalTo("bytes=2-4"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_PARTIAL_CONTENT).withHeader("Content-Range", "bytes 2-4/10")
+						.withHeader("Accept-Ranges", "bytes").withBody("234")));
+		httpServer.start();
+
+		final var response = resource.getArtifact(subscription, "2", "app.jar", "bytes=2-4");
+		Assertions.assertEquals(HttpStatus.SC_PARTIAL_CONTENT, response.getStatus());
+		Assertions.assertEquals("bytes 2-4/10", response.getHeaderString("Content-Range"));
+		Assertions.assertEquals("bytes", response.getHeaderString("Accept-Ranges"));
+		final var out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		Assertions.assertEquals("234", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void getArtifactRangeNotSatisfiable() {
+		httpServer.stubFor(get(urlEqualTo("/job/ligoj-bootstrap/2/artifact/app.jar"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE)
+						.withHeader("Content-Range", "bytes */10")));
+		httpServer.start();
+
+		final var response = resource.getArtifact(subscription, "2", "app.jar", "bytes=20-30");
+		Assertions.assertEquals(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+		Assertions.assertEquals("bytes */10", response.getHeaderString("Content-Range"));
+		Assertions.assertNull(response.getEntity());
+	}
+
+	@Test
+	void getArtifactNotFound() {
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getArtifact(subscription, "2", "app.jar", null)), "path", "jenkins-artifact");
+	}
+
+	@Test
+	void getArtifactOutside() {
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+				() -> resource.getArtifact(subscription, "2", "../../config.xml", null)), "path", "jenkins-artifact");
+	}
+
 	@Test
 	void checkStatus() throws IOException {
 		addLoginAccess();
@@ -277,6 +893,107 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		checkJob((Job) nodeStatusWithData.getData().get("job"), false);
 	}
 
+	@Test
+	void notification() throws IOException, ParserConfigurationException, SAXException {
+		addJobAccess();
+		httpServer.start();
+		addWebhookSecret();
+
+		final var parameters = subscriptionResource.getParametersNoCheck(subscription);
+		final var job = (Job) resource.checkSubscriptionStatus(parameters).getData().get("job");
+		Assertions.assertFalse(job.isBuilding());
+
+		// Job started
+		final var notification = new JenkinsNotification();
+		notification.setUrl("job/ligoj-bootstrap/");
+		final var build = new JenkinsNotification.Build();
+		build.setPhase("STARTED");
+		build.setTimestamp(1693000000002L);
+		notification.setBuild(build);
+		resource.notification("service:build:jenkins:bpr", "secret", notification);
+		final var started = (Job) resource.checkSubscriptionStatus(parameters).getData().get("job");
+		Assertions.assertTrue(started.isBuilding());
+		Assertions.assertEquals(1693000000002L, started.getLastBuild());
+
+		// Branch completed
+		notification.setUrl("job/ligoj-bootstrap/job/main/");
+		build.setPhase("COMPLETED");
+		build.setStatus("SUCCESS");
+		resource.notification("service:build:jenkins:bpr", "secret", notification);
+		final var completed = (Job) resource.checkSubscriptionStatus(parameters).getData().get("job");
+		Assertions.assertEquals("blue", completed.getJobs().get(1).getStatus());
+		Assertions.assertEquals("yellow", completed.getStatus());
+
+		// Only the first status read has reached Jenkins
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/job/ligoj-bootstrap/api/xml")));
+	}
+
+	@Test
+	void notificationInvalidSecret() {
+		addWebhookSecret();
+		final var notification = new JenkinsNotification();
+		Assertions.assertThrows(ForbiddenException.class,
+				() -> resource.notification("service:build:jenkins:bpr", "any", notification));
+		Assertions.assertThrows(ForbiddenException.class,
+				() -> resource.notification("service:build:jenkins:bpr", null, notification));
+	}
+
+	@Test
+	void notificationNoSecret() {
+		final var notification = new JenkinsNotification();
+		Assertions.assertThrows(ForbiddenException.class,
+				() -> resource.notification("service:build:jenkins:bpr", "secret", notification));
+	}
+
+	@Test
+	void getNodeParameters() {
+		final var parameters = nodeParameters.get("service:build:jenkins:bpr");
+		Assertions.assertEquals("http://localhost:8120", parameters.get(JenkinsPluginResource.PARAMETER_URL));
+		Assertions.assertNull(parameters.get(JenkinsPluginResource.PARAMETER_WEBHOOK_SECRET));
+
+		// A modifiable copy
+		parameters.put(JenkinsPluginResource.PARAMETER_JOB, "any");
+		Assertions.assertNull(nodeParameters.get("service:build:jenkins:bpr").get(JenkinsPluginResource.PARAMETER_JOB));
+
+		// A change is visible once evicted, or after the TTL
+		persistWebhookSecret();
+		Assertions.assertNull(nodeParameters.get("service:build:jenkins:bpr").get(JenkinsPluginResource.PARAMETER_WEBHOOK_SECRET));
+		nodeParameters.evict("service:build:jenkins:bpr");
+		Assertions.assertNotNull(nodeParameters.get("service:build:jenkins:bpr").get(JenkinsPluginResource.PARAMETER_WEBHOOK_SECRET));
+	}
+
+	@Test
+	void getNodeParametersCached() {
+		final var pvResource = Mockito.mock(ParameterValueResource.class);
+		Mockito.when(pvResource.getNodeParameters("service:build:jenkins:bpr"))
+				.thenReturn(Map.of(JenkinsPluginResource.PARAMETER_URL, "http://localhost:8120"));
+		final var cache = new JenkinsNodeParameters();
+		cache.pvResource = pvResource;
+		cache.configuration = configurationResource;
+		cache.get("service:build:jenkins:bpr");
+		cache.get("service:build:jenkins:bpr");
+		Mockito.verify(pvResource, Mockito.times(1)).getNodeParameters("service:build:jenkins:bpr");
+
+		// Expired
+		configurationResource.put(JenkinsNodeParameters.PARAMETER_TTL, "-1");
+		cache.get("service:build:jenkins:bpr");
+		Mockito.verify(pvResource, Mockito.times(2)).getNodeParameters("service:build:jenkins:bpr");
+	}
+
+	private void addWebhookSecret() {
+		persistWebhookSecret();
+		nodeParameters.evict("service:build:jenkins:bpr");
+	}
+
+	private void persistWebhookSecret() {
+		final var parameterValue = new ParameterValue();
+		parameterValue.setParameter(em.find(Parameter.class, JenkinsPluginResource.PARAMETER_WEBHOOK_SECRET));
+		parameterValue.setNode(em.find(Node.class, "service:build:jenkins:bpr"));
+		parameterValue.setData("secret");
+		em.persist(parameterValue);
+		em.flush();
+	}
+
 	private void addJobAccess() throws IOException {
 		configurationResource.put(JenkinsPluginResource.PARAMETER_MAX_BRANCHES, "2");
 		httpServer.stubFor(get(urlEqualTo(
@@ -349,8 +1066,7 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 
 	@Test
 	void findAllByName() throws IOException, SAXException, ParserConfigurationException {
-		httpServer.stubFor(get(urlEqualTo("/api/xml?tree=jobs[displayName,fullName,description,color,lastBuild[timestamp],property[branch[head]]," +
-				"jobs[displayName,fullName,description,color,lastBuild[timestamp],property[branch[head]]]]")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+		httpServer.stubFor(get(urlEqualTo("/api/xml?tree=jobs[displayName,fullName,description,jobs[displayName,fullName,description]]")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
 				.withBody(IOUtils.toString(
 						new ClassPathResource("mock-server/jenkins/jenkins-api-xml-tree.xml").getInputStream(),
 						StandardCharsets.UTF_8))));
@@ -359,6 +1075,247 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		checkAll(jobs);
 	}
 
+	@Test
+	void findAllByNameCached() throws IOException, SAXException, ParserConfigurationException {
+		addTreeAccess();
+		httpServer.start();
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj"));
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj"));
+		Assertions.assertEquals(1, resource.findAllByName("service:build:jenkins:bpr", "cron-rse").size());
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/api/xml")));
+	}
+
+	@Test
+	void findAllByNameToken() throws IOException, SAXException, ParserConfigurationException {
+		addTreeAccess();
+		httpServer.start();
+
+		// The search runs in another thread, out of the test transaction
+		nodeParameters.get("service:build:jenkins:bpr");
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj", "token"));
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj", "token"));
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/api/xml")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void findAllByNameResponse() throws Exception {
+		addTreeAccess();
+		httpServer.start();
+
+		// The search runs in another thread, out of the test transaction
+		nodeParameters.get("service:build:jenkins:bpr");
+		final var resumed = new CompletableFuture<>();
+		final var response = Mockito.mock(AsyncResponse.class);
+		Mockito.when(response.resume(Mockito.any(Object.class))).then(i -> resumed.complete(i.getArgument(0)));
+		resource.findAllByName("service:build:jenkins:bpr", "ligoj", null, response);
+		checkAll((List<Job>) resumed.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void cancelSearch() {
+		// No in-flight search
+		resource.cancelSearch("token");
+	}
+
+	@Test
+	void prewarm() throws IOException, SAXException, ParserConfigurationException {
+		addTreeAccess();
+		httpServer.start();
+		prewarm.prewarm(em.find(Node.class, "service:build:jenkins:bpr"));
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/api/xml")));
+
+		// Served from the prewarmed tree
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj"));
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/api/xml")));
+	}
+
+	@Test
+	void loadAllJobsKnownDepth() throws IOException, SAXException, ParserConfigurationException {
+		addTreeAccess();
+		httpServer.start();
+		configurationResource.put(JenkinsPluginResource.PARAMETER_MAX_DEPTH, "3");
+		resource.loadAllJobs("service:build:jenkins:bpr", "");
+		httpServer.verify(1, getRequestedFor(urlEqualTo("/api/xml?tree=jobs[displayName,fullName,description,"
+				+ "jobs[displayName,fullName,description,jobs[displayName,fullName,description]]]")));
+
+		// Only one level more than the known folders
+		resource.loadAllJobs("service:build:jenkins:bpr", "");
+		httpServer.verify(1, getRequestedFor(
+				urlEqualTo("/api/xml?tree=jobs[displayName,fullName,description,jobs[displayName,fullName,description]]")));
+	}
+
+	@Test
+	void findAllByNameAllNodes() throws IOException, SAXException, ParserConfigurationException {
+		addTreeAccess();
+		httpServer.start();
+
+		// Load the tree within the test transaction
+		checkAll(resource.findAllByName("service:build:jenkins:bpr", "ligoj"));
+		final var jobs = newResource("service:build:jenkins:bpr").findAllByNameAllNodes("ligoj");
+		checkAll(jobs);
+		Assertions.assertEquals("service:build:jenkins:bpr", jobs.getFirst().getNode());
+
+		// Bounded result
+		configurationResource.put(JenkinsPluginResource.PARAMETER_SEARCH_MAX, "2");
+		Assertions.assertEquals(2, newResource("service:build:jenkins:bpr").findAllByNameAllNodes("ligoj").size());
+	}
+
+	@Test
+	void findAllByNameAllNodesTimeout() throws IOException, InterruptedException {
+		addTreeAccess();
+		httpServer.start();
+		configurationResource.put(JenkinsPluginResource.PARAMETER_SEARCH_TIMEOUT, "50");
+
+		// The node tasks run out of the test transaction
+		nodeParameters.get("service:build:jenkins:bpr");
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var resource = new JenkinsPluginResource() {
+			@Override
+			protected List<String> getVisibleNodes() {
+				return List.of("service:build:jenkins:bpr");
+			}
+
+			@Override
+			protected String getResource(final Map<String, String> parameters, final String resource) {
+				// Slow node until released
+				started.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getResource(parameters, resource);
+			}
+		};
+		applicationContext.getAutowireCapableBeanFactory().autowireBean(resource);
+		Assertions.assertEquals(0, resource.findAllByNameAllNodes("ligoj").size());
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// The slow tree is still loaded, and shared with the next search
+		release.countDown();
+		configurationResource.put(JenkinsPluginResource.PARAMETER_SEARCH_TIMEOUT, "5000");
+		checkAll(resource.findAllByNameAllNodes("ligoj"));
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/api/xml")));
+		Assertions.assertNotNull(treeCache.getStale("service:build:jenkins:bpr", ""));
+	}
+
+	@Test
+	void exportStatus() throws IOException {
+		addJobAccess();
+		httpServer.start();
+		final var gone = newSubscription("gone");
+
+		final var out = new ByteArrayOutputStream();
+		final var resource = newResource("service:build:jenkins:bpr");
+		final var output = resource.exportStatus();
+
+		// The parameters are resolved before streaming, within the request
+		resource.subscriptionResource = Mockito.mock(SubscriptionResource.class);
+		output.write(out);
+		final var lines = out.toString(StandardCharsets.UTF_8).lines().map(l -> {
+			try {
+				return new ObjectMapper().readTree(l);
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}).collect(Collectors.toMap(l -> l.path("subscription").asInt(), Function.identity()));
+		Assertions.assertEquals(2, lines.size());
+		final var line = lines.get(subscription);
+		Assertions.assertEquals("service:build:jenkins:bpr", line.path("node").asText());
+		Assertions.assertEquals("ligoj-bootstrap", line.path("job").asText());
+		Assertions.assertEquals("yellow", line.path("status").asText());
+		Assertions.assertFalse(line.path("building").asBoolean());
+		Assertions.assertTrue(line.path("branches").isObject());
+		Assertions.assertFalse(line.has("error"));
+		Assertions.assertTrue(lines.get(gone).has("error"));
+	}
+
+	@Test
+	void exportStatusNotVisibleProject() throws IOException {
+		final var resource = newResource("service:build:jenkins:bpr");
+		resource.projectRepository = Mockito.mock(ProjectRepository.class);
+		final var out = new ByteArrayOutputStream();
+		resource.exportStatus().write(out);
+		Assertions.assertEquals(0, out.size());
+	}
+
+	@Test
+	void exportStatusNotVisible() throws IOException {
+		final var out = new ByteArrayOutputStream();
+		newResource().exportStatus().write(out);
+		Assertions.assertEquals(0, out.size());
+	}
+
+	@Test
+	void getLoad() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/computer/api/json")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withBody("{\"computer\":[{\"offline\":false,\"executors\":[{\"idle\":false},{\"idle\":true}]},"
+						+ "{\"offline\":false,\"executors\":[{\"idle\":false}]},{\"offline\":true,\"executors\":[{}]}]}")));
+		httpServer.stubFor(get(urlPathEqualTo("/queue/api/json")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withBody("{\"items\":[{\"stuck\":true},{\"stuck\":false}]}")));
+		httpServer.start();
+
+		final var load = newResource("service:build:jenkins:bpr").getLoad("service:build:jenkins:bpr");
+		Assertions.assertEquals("service:build:jenkins:bpr", load.getNode());
+		Assertions.assertEquals(3, load.getAgents());
+		Assertions.assertEquals(1, load.getOffline());
+		Assertions.assertEquals(3, load.getExecutors());
+		Assertions.assertEquals(2, load.getBusy());
+		Assertions.assertEquals(1, load.getIdle());
+		Assertions.assertEquals(2, load.getQueue());
+		Assertions.assertEquals(1, load.getStuck());
+
+		// Served from the snapshot whatever the amount of viewers
+		newResource("service:build:jenkins:bpr").getLoad("service:build:jenkins:bpr");
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/computer/api/json")));
+
+		// Scheduled refresh
+		loadMonitor.refresh();
+		httpServer.verify(2, getRequestedFor(urlPathEqualTo("/computer/api/json")));
+		httpServer.verify(2, getRequestedFor(urlPathEqualTo("/queue/api/json")));
+	}
+
+	@Test
+	void getLoadNotVisible() {
+		Assertions.assertThrows(EntityNotFoundException.class, () -> newResource().getLoad("service:build:jenkins:bpr"));
+	}
+
+	@Test
+	void getLoadFailed() {
+		httpServer.start();
+		MatcherUtil.assertThrows(Assertions.assertThrows(ValidationJsonException.class,
+						() -> newResource("service:build:jenkins:bpr").getLoad("service:build:jenkins:bpr")),
+				JenkinsPluginResource.PARAMETER_URL, "jenkins-connection");
+	}
+
+	@Test
+	void findAllByNameAllNodesNotVisible() throws IOException {
+		Assertions.assertEquals(0, newResource().findAllByNameAllNodes("ligoj").size());
+	}
+
+	/**
+	 * Return a resource seeing only the given nodes.
+	 */
+	private JenkinsPluginResource newResource(final String... nodes) {
+		final var resource = new JenkinsPluginResource() {
+			@Override
+			protected List<String> getVisibleNodes() {
+				return List.of(nodes);
+			}
+		};
+		applicationContext.getAutowireCapableBeanFactory().autowireBean(resource);
+		return resource;
+	}
+
+	private void addTreeAccess() throws IOException {
+		httpServer.stubFor(get(urlPathEqualTo("/api/xml")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withBody(IOUtils.toString(
+						new ClassPathResource("mock-server/jenkins/jenkins-api-xml-tree.xml").getInputStream(),
+						StandardCharsets.UTF_8))));
+	}
+
 	private void checkAll(final List<Job> jobs) {
 		Assertions.assertEquals(4, jobs.size());
 		final var job = jobs.get(1);
@@ -512,6 +1469,63 @@ class JenkinsPluginResourceTest extends AbstractServerTest {
 		Assertions.assertThrows(RuntimeException.class, () -> this.resource.build(map, null));
 	}
 
+	@Test
+	void buildCrumb() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		addCrumbIssuer("crumb1");
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/build")).withHeader("Jenkins-Crumb", equalTo("crumb1"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+		httpServer.start();
+		this.resource.build(subscription);
+		this.resource.build(subscription);
+
+		// The crumb is fetched only once
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/crumbIssuer/api/json")));
+		httpServer.verify(2, postRequestedFor(urlEqualTo("/job/ligoj-bootstrap/build")));
+	}
+
+	@Test
+	void buildCrumbExpired() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		final var user = pvResource.getNodeParameters("service:build:jenkins:bpr").get(JenkinsPluginResource.PARAMETER_USER);
+		JenkinsCurlProcessor.CRUMBS.put("http://localhost:8120/|" + user,
+				new JenkinsCurlProcessor.Crumb("Jenkins-Crumb:expired", "JSESSIONID=expired"));
+		addCrumbIssuer("crumb2");
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/build")).withHeader("Jenkins-Crumb", equalTo("expired"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_FORBIDDEN)));
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/build")).withHeader("Jenkins-Crumb", equalTo("crumb2"))
+				.willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+		httpServer.start();
+		this.resource.build(subscription);
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/crumbIssuer/api/json")));
+		httpServer.verify(0, postRequestedFor(urlEqualTo("/job/ligoj-bootstrap/buildWithParameters")));
+	}
+
+	@Test
+	void buildCrumbSession() throws IOException {
+		addLoginAccess();
+		addAdminAccess();
+		httpServer.stubFor(get(urlPathEqualTo("/crumbIssuer/api/json")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withHeader("Set-Cookie", "JSESSIONID=session1; Path=/; HttpOnly")
+				.withBody("{\"crumb\":\"crumb1\",\"crumbRequestField\":\"Jenkins-Crumb\"}")));
+		httpServer.stubFor(post(urlEqualTo("/job/ligoj-bootstrap/build")).withHeader("Jenkins-Crumb", equalTo("crumb1"))
+				.withCookie("JSESSIONID", equalTo("session1")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+		httpServer.start();
+		this.resource.build(subscription);
+
+		// The cached crumb is sent with its session by another processor
+		this.resource.build(subscription);
+		httpServer.verify(1, getRequestedFor(urlPathEqualTo("/crumbIssuer/api/json")));
+		httpServer.verify(2, postRequestedFor(urlEqualTo("/job/ligoj-bootstrap/build")).withCookie("JSESSIONID", equalTo("session1")));
+	}
+
+	private void addCrumbIssuer(final String crumb) {
+		httpServer.stubFor(get(urlPathEqualTo("/crumbIssuer/api/json")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)
+				.withBody("{\"crumb\":\"" + crumb + "\",\"crumbRequestField\":\"Jenkins-Crumb\"}")));
+	}
+
 	@Test
 	void buildParameters() throws IOException {
 		addLoginAccess();
@@ -0,0 +1,169 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test class of {@link JenkinsRateLimiter}
+ */
+class JenkinsRateLimiterTest {
+
+	private static final String URL = "http://localhost:8120/";
+
+	/**
+	 * Controlled time in nanoseconds.
+	 */
+	private final AtomicLong clock = new AtomicLong();
+
+	@BeforeEach
+	void clear() {
+		JenkinsRateLimiter.BUCKETS.clear();
+	}
+
+	private Map<String, String> newParameters(final int rate, final int burst) {
+		return Map.of(JenkinsPluginResource.PARAMETER_URL, URL, JenkinsPluginResource.PARAMETER_RATE,
+				String.valueOf(rate), JenkinsPluginResource.PARAMETER_BURST, String.valueOf(burst));
+	}
+
+	/**
+	 * Register a bucket driven by the controlled clock.
+	 */
+	private JenkinsRateLimiter.Bucket newBucket(final int rate, final int burst) {
+		final var bucket = new JenkinsRateLimiter.Bucket(rate, burst, clock::get);
+		JenkinsRateLimiter.BUCKETS.put(URL, bucket);
+		return bucket;
+	}
+
+	/**
+	 * Wait for the given amount of threads parked by the bucket.
+	 */
+	private void awaitWaiting(final JenkinsRateLimiter.Bucket bucket, final int waiting) throws InterruptedException {
+		while (bucket.getWaiting() != waiting) {
+			Thread.sleep(5);
+		}
+	}
+
+	private CompletableFuture<Void> acquireAsync(final Map<String, String> parameters, final boolean background) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				if (background) {
+					JenkinsRateLimiter.background(() -> {
+						JenkinsRateLimiter.acquire(parameters);
+						return null;
+					});
+				} else {
+					JenkinsRateLimiter.acquire(parameters);
+				}
+			} catch (final Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@Test
+	void acquireNoLimit() throws InterruptedIOException {
+		for (var i = 0; i < 100; i++) {
+			JenkinsRateLimiter.acquire(Map.of(JenkinsPluginResource.PARAMETER_URL, "http://localhost:8120"));
+		}
+		Assertions.assertTrue(JenkinsRateLimiter.BUCKETS.isEmpty());
+	}
+
+	@Test
+	void acquire() throws Exception {
+		final var parameters = newParameters(20, 2);
+		final var bucket = newBucket(20, 2);
+
+		// 2 from the burst, then the next one waits for the refill
+		JenkinsRateLimiter.acquire(parameters);
+		JenkinsRateLimiter.acquire(parameters);
+		final var waiting = acquireAsync(parameters, false);
+		awaitWaiting(bucket, 1);
+		Assertions.assertFalse(waiting.isDone());
+
+		// 1 token every 50ms
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+		waiting.get(5, TimeUnit.SECONDS);
+		Assertions.assertSame(bucket, JenkinsRateLimiter.BUCKETS.get(URL));
+	}
+
+	@Test
+	void acquireUpdatedLimits() throws InterruptedIOException {
+		final var bucket = newBucket(20, 2);
+		JenkinsRateLimiter.acquire(newParameters(10, 2));
+		Assertions.assertNotSame(bucket, JenkinsRateLimiter.BUCKETS.get(URL));
+	}
+
+	@Test
+	void acquireInterrupted() throws Exception {
+		final var parameters = newParameters(1, 1);
+		final var bucket = newBucket(1, 1);
+		JenkinsRateLimiter.acquire(parameters);
+		final var thread = Thread.currentThread();
+		final var interrupt = CompletableFuture.runAsync(() -> {
+			try {
+				awaitWaiting(bucket, 1);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			thread.interrupt();
+		});
+
+		// The cancelled request is not sent
+		Assertions.assertThrows(InterruptedIOException.class, () -> JenkinsRateLimiter.acquire(parameters));
+		Assertions.assertTrue(Thread.interrupted());
+		interrupt.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void acquireBackground() throws Exception {
+		final var parameters = newParameters(10, 4);
+		final var bucket = newBucket(10, 4);
+
+		// The background requests cannot consume the reserved half of the burst
+		JenkinsRateLimiter.background(() -> {
+			JenkinsRateLimiter.acquire(parameters);
+			JenkinsRateLimiter.acquire(parameters);
+			return null;
+		});
+		final var background = acquireAsync(parameters, true);
+		awaitWaiting(bucket, 1);
+
+		// The interactive requests can
+		JenkinsRateLimiter.acquire(parameters);
+		JenkinsRateLimiter.acquire(parameters);
+		Assertions.assertFalse(background.isDone());
+
+		// The background request is served once the reserve is refilled
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+		background.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void acquireBackgroundAfterInteractive() throws Exception {
+		final var parameters = newParameters(10, 2);
+		final var bucket = newBucket(10, 2);
+		JenkinsRateLimiter.acquire(parameters);
+		JenkinsRateLimiter.acquire(parameters);
+		final var interactive = acquireAsync(parameters, false);
+		awaitWaiting(bucket, 1);
+		final var background = acquireAsync(parameters, true);
+		awaitWaiting(bucket, 2);
+
+		// Enough for the background request alone, but the interactive one is served first
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+		interactive.get(5, TimeUnit.SECONDS);
+		Assertions.assertFalse(background.isDone());
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+		background.get(5, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class of {@link JenkinsSearches}
+ */
+class JenkinsSearchesTest {
+
+	private final JenkinsSearches searches = new JenkinsSearches();
+
+	/**
+	 * Block until interrupted, and count down the interrupted latch.
+	 */
+	private String block(final CountDownLatch started, final CountDownLatch interrupted) {
+		started.countDown();
+		try {
+			new CountDownLatch(1).await();
+		} catch (final InterruptedException e) {
+			interrupted.countDown();
+		}
+		return "blocked";
+	}
+
+	/**
+	 * Block until released.
+	 */
+	private String release(final CountDownLatch started, final CountDownLatch release, final String result) {
+		started.countDown();
+		try {
+			Assertions.assertTrue(release.await(5, TimeUnit.SECONDS));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return result;
+	}
+
+	private void await(final CountDownLatch latch) throws InterruptedException {
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Wait for the given amount of threads waiting for the load.
+	 */
+	private void awaitWaiters(final int waiters) throws InterruptedException {
+		while (searches.getWaiters("node|") != waiters) {
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Run a search from another thread. The cancelled search returns "cancelled".
+	 */
+	private CompletableFuture<String> runAsync(final String key, final JenkinsSearches.Search<String> search) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return searches.run(key, search);
+			} catch (final CancellationException e) {
+				return "cancelled";
+			} catch (final Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	/**
+	 * Return a suspended response completing the given future with the resumed value.
+	 */
+	private AsyncResponse newResponse(final CompletableFuture<Object> resumed) {
+		final var response = Mockito.mock(AsyncResponse.class);
+		Mockito.when(response.resume(Mockito.any(Object.class))).then(i -> resumed.complete(i.getArgument(0)));
+		Mockito.when(response.resume(Mockito.any(Throwable.class))).then(i -> resumed.complete(i.getArgument(0)));
+		return response;
+	}
+
+	@Test
+	void runNoKey() throws Exception {
+		final var thread = Thread.currentThread();
+		Assertions.assertEquals("done", searches.run(null, () -> Thread.currentThread() == thread ? "done" : "other"));
+	}
+
+	@Test
+	void runFailed() {
+		Assertions.assertThrows(IOException.class, () -> searches.run("junit|token", () -> {
+			throw new IOException();
+		}));
+	}
+
+	@Test
+	void runSuperseded() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var first = runAsync("junit|token", () -> block(started, interrupted));
+		await(started);
+
+		// The same token cancels the previous search
+		Assertions.assertEquals("second", searches.run("junit|token", () -> "second"));
+		Assertions.assertEquals("cancelled", first.get(5, TimeUnit.SECONDS));
+		await(interrupted);
+	}
+
+	@Test
+	void runOtherToken() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var first = runAsync("junit|token1", () -> release(started, release, "first"));
+		await(started);
+		Assertions.assertEquals("second", searches.run("junit|token2", () -> "second"));
+		release.countDown();
+		Assertions.assertEquals("first", first.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void runResponse() throws Exception {
+		final var resumed = new CompletableFuture<>();
+		searches.run(null, () -> "done", newResponse(resumed));
+		Assertions.assertEquals("done", resumed.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void runResponseFailed() throws Exception {
+		final var resumed = new CompletableFuture<>();
+		searches.run(null, () -> {
+			throw new IOException();
+		}, newResponse(resumed));
+		Assertions.assertInstanceOf(IOException.class, resumed.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void runResponseSuperseded() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var resumed = new CompletableFuture<>();
+		searches.run("junit|token", () -> block(started, interrupted), newResponse(resumed));
+		await(started);
+
+		// The superseded search is answered with a conflict
+		Assertions.assertEquals("second", searches.run("junit|token", () -> "second"));
+		Assertions.assertEquals(409, ((Response) resumed.get(5, TimeUnit.SECONDS)).getStatus());
+		await(interrupted);
+	}
+
+	@Test
+	void runResponseDisconnected() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var response = newResponse(new CompletableFuture<>());
+		searches.run("junit|token", () -> block(started, interrupted), response);
+		await(started);
+
+		// The client disconnection cancels the search
+		final var callback = ArgumentCaptor.forClass(Object.class);
+		Mockito.verify(response).register(callback.capture());
+		((ConnectionCallback) callback.getValue()).onDisconnect(response);
+		await(interrupted);
+		Assertions.assertFalse(searches.cancel("junit|token"));
+	}
+
+	@Test
+	void cancel() throws Exception {
+		Assertions.assertFalse(searches.cancel("junit|token"));
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var first = runAsync("junit|token", () -> block(started, interrupted));
+		await(started);
+		Assertions.assertTrue(searches.cancel("junit|token"));
+		Assertions.assertEquals("cancelled", first.get(5, TimeUnit.SECONDS));
+		await(interrupted);
+	}
+
+	@Test
+	void joinShared() throws Exception {
+		final var loads = new AtomicInteger();
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var first = CompletableFuture.supplyAsync(() -> join(() -> {
+			loads.incrementAndGet();
+			return release(started, release, "loaded");
+		}));
+		await(started);
+		final var second = CompletableFuture.supplyAsync(() -> join(() -> "other"));
+		awaitWaiters(2);
+		release.countDown();
+		Assertions.assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals("loaded", second.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(1, loads.get());
+
+		// The completed load is not shared anymore
+		Assertions.assertEquals(0, searches.getWaiters("node|"));
+		Assertions.assertEquals("other", join(() -> "other"));
+	}
+
+	@Test
+	void joinCancelled() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+
+		// The only waiting search is cancelled, and so is the load
+		final var search = runAsync("junit|token", () -> searches.join("node|", () -> block(started, interrupted)));
+		await(started);
+		Assertions.assertTrue(searches.cancel("junit|token"));
+		Assertions.assertEquals("cancelled", search.get(5, TimeUnit.SECONDS));
+		await(interrupted);
+	}
+
+	private String join(final JenkinsSearches.Search<String> load) {
+		try {
+			return searches.join("node|", load);
+		} catch (final Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class of {@link JenkinsTestReportCallback}
+ */
+class JenkinsTestReportCallbackTest {
+
+	private static String newCase(final String name, final String status, final String duration) {
+		return "<case><className>org.sample.SampleTest</className><duration>" + duration + "</duration><name>" + name
+				+ "</name><status>" + status + "</status></case>";
+	}
+
+	private static ByteArrayInputStream newReport(final String... cases) {
+		return new ByteArrayInputStream(("<testResult _class=\"hudson.tasks.junit.TestResult\"><suite>"
+				+ String.join("", cases) + "</suite></testResult>").getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void aggregate() throws XMLStreamException {
+		final var report = new JenkinsTestReportCallback(2).aggregate(newReport(newCase("a", "PASSED", "0.1"),
+				newCase("b", "FAILED", "0.5"), newCase("c", "REGRESSION", "1.25"), newCase("d", "FIXED", "0.0"),
+				newCase("e", "SKIPPED", "0.0"), newCase("f", "FAILED", "0.05")));
+		Assertions.assertEquals(2, report.getPassCount());
+		Assertions.assertEquals(3, report.getFailCount());
+		Assertions.assertEquals(1, report.getSkipCount());
+
+		// Only the slowest failures, the slowest first
+		Assertions.assertEquals(2, report.getFailures().size());
+		Assertions.assertEquals("c", report.getFailures().getFirst().getName());
+		Assertions.assertEquals("org.sample.SampleTest", report.getFailures().getFirst().getClassName());
+		Assertions.assertEquals("REGRESSION", report.getFailures().getFirst().getStatus());
+		Assertions.assertEquals(1250, report.getFailures().getFirst().getDuration());
+		Assertions.assertEquals("b", report.getFailures().get(1).getName());
+	}
+
+	@Test
+	void aggregateNoFailures() throws XMLStreamException {
+		final var report = new JenkinsTestReportCallback(0).aggregate(newReport(newCase("b", "FAILED", "0.5")));
+		Assertions.assertEquals(1, report.getFailCount());
+		Assertions.assertTrue(report.getFailures().isEmpty());
+	}
+
+	@Test
+	void aggregateEmpty() throws XMLStreamException {
+		final var report = new JenkinsTestReportCallback(10).aggregate(newReport());
+		Assertions.assertEquals(0, report.getPassCount());
+		Assertions.assertTrue(report.getFailures().isEmpty());
+	}
+
+	@Test
+	void aggregateInvalid() {
+		final var callback = new JenkinsTestReportCallback(10);
+		Assertions.assertThrows(XMLStreamException.class, () -> callback.aggregate(
+				new ByteArrayInputStream("<testResult><suite>".getBytes(StandardCharsets.UTF_8))));
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import com.hazelcast.cache.HazelcastCacheManager;
+import com.hazelcast.cache.HazelcastCachingProvider;
+import com.hazelcast.config.CacheConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.Caching;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test class of {@link JenkinsTreeCache}
+ */
+class JenkinsTreeCacheTest {
+
+	@TempDir
+	private Path directory;
+
+	private JenkinsTreeCache newCache() {
+		final var cache = new JenkinsTreeCache();
+		ReflectionTestUtils.setField(cache, "directory", directory.resolve("jenkins").toString());
+		return cache;
+	}
+
+	@Test
+	void persisted() throws Exception {
+		newCache().put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		final var other = Files.writeString(directory.resolve("jenkins/other.bin.gz"), "other");
+
+		// Reloaded after a restart
+		final var cache = newCache();
+		Assertions.assertNull(cache.getStale("service:build:jenkins:bpr", "view/Templates/"));
+		Assertions.assertEquals(103, cache.getStale("service:build:jenkins:bpr", "").size());
+		Assertions.assertEquals(103, cache.get("service:build:jenkins:bpr", "", 60000).size());
+		Assertions.assertNull(cache.get("service:build:jenkins:bpr", "", -1));
+
+		// Only the snapshots are deleted
+		cache.clear();
+		Assertions.assertTrue(Files.exists(other));
+		try (var files = Files.list(directory.resolve("jenkins"))) {
+			Assertions.assertEquals(1, files.count());
+		}
+		Assertions.assertNull(newCache().getStale("service:build:jenkins:bpr", ""));
+	}
+
+	@Test
+	void unreadable() throws Exception {
+		final var cache = newCache();
+		cache.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		try (var files = Files.list(directory.resolve("jenkins"))) {
+			Files.writeString(files.findFirst().orElseThrow(), "corrupted");
+		}
+		Assertions.assertNull(newCache().getStale("service:build:jenkins:bpr", ""));
+	}
+
+	@Test
+	void notPersisted() throws Exception {
+		final var cache = newCache();
+		cache.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		final Path snapshot;
+		try (var files = Files.list(directory.resolve("jenkins"))) {
+			snapshot = files.findFirst().orElseThrow();
+		}
+
+		// The snapshot cannot be replaced by a directory
+		Files.delete(snapshot);
+		Files.writeString(Files.createDirectory(snapshot).resolve("other"), "other");
+		cache.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		Assertions.assertEquals(103, cache.getStale("service:build:jenkins:bpr", "").size());
+
+		// The temporary file is deleted
+		try (var files = Files.list(directory.resolve("jenkins"))) {
+			Assertions.assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void memoryOnly() {
+		final var cache = new JenkinsTreeCache();
+		cache.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		Assertions.assertEquals(103, cache.getStale("service:build:jenkins:bpr", "").size());
+		cache.clear();
+		Assertions.assertNull(cache.getStale("service:build:jenkins:bpr", ""));
+	}
+
+	@Test
+	void shared() {
+		final var cacheManager = new ConcurrentMapCacheManager();
+		final var cache1 = new JenkinsTreeCache();
+		ReflectionTestUtils.setField(cache1, "cacheManager", cacheManager);
+		final var cache2 = new JenkinsTreeCache();
+		ReflectionTestUtils.setField(cache2, "cacheManager", cacheManager);
+
+		Assertions.assertNull(cache2.get("service:build:jenkins:bpr", "", 60000));
+		cache1.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+
+		// Loaded by another replica
+		Assertions.assertEquals(103, cache2.get("service:build:jenkins:bpr", "", 60000).size());
+		Assertions.assertEquals("folder/main", cache2.getStale("service:build:jenkins:bpr", "").getId(2));
+
+		cache1.evict("service:build:jenkins:bpr", "");
+		Assertions.assertNull(cache1.getStale("service:build:jenkins:bpr", ""));
+		Assertions.assertNull(cacheManager.getCache(JenkinsCacheConfig.TREES).get("service:build:jenkins:bpr|"));
+	}
+
+	@Test
+	void sharedDecodedOnce() throws InterruptedException {
+		final var shared = Mockito.spy(new ConcurrentMapCacheManager().getCache(JenkinsCacheConfig.TREES));
+		final var cacheManager = Mockito.mock(CacheManager.class);
+		Mockito.when(cacheManager.getCache(JenkinsCacheConfig.TREES)).thenReturn(shared);
+		final var cache1 = new JenkinsTreeCache();
+		ReflectionTestUtils.setField(cache1, "cacheManager", cacheManager);
+		final var cache2 = new JenkinsTreeCache();
+		ReflectionTestUtils.setField(cache2, "cacheManager", cacheManager);
+		cache1.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		final var decoded = cache2.getStale("service:build:jenkins:bpr", "");
+
+		// The expired tree is kept while there is no newer shared tree
+		Assertions.assertNull(cache2.get("service:build:jenkins:bpr", "", -1));
+		Assertions.assertNull(cache2.get("service:build:jenkins:bpr", "", -1));
+		Assertions.assertSame(decoded, cache2.getStale("service:build:jenkins:bpr", ""));
+		Mockito.verify(shared).get("service:build:jenkins:bpr|", byte[].class);
+
+		// A newer shared tree is decoded, with a later load time
+		Thread.sleep(5);
+		cache1.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+		Assertions.assertNotNull(cache2.get("service:build:jenkins:bpr", "", 60000));
+		Assertions.assertNotSame(decoded, cache2.getStale("service:build:jenkins:bpr", ""));
+		Mockito.verify(shared, Mockito.times(2)).get(ArgumentMatchers.eq("service:build:jenkins:bpr|"),
+				ArgumentMatchers.eq(byte[].class));
+	}
+
+	@Test
+	void sharedHazelcast() {
+		final var config = new Config();
+		config.setClusterName("jenkins-junit");
+		config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+		config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+		final var instance = Hazelcast.newHazelcastInstance(config);
+		try (var jcache = Caching.getCachingProvider("com.hazelcast.cache.HazelcastMemberCachingProvider")
+				.getCacheManager(null, null, HazelcastCachingProvider.propertiesByInstanceItself(instance))) {
+			new JenkinsCacheConfig().onCreate(jcache.unwrap(HazelcastCacheManager.class), CacheConfig::new);
+			final var cacheManager = new JCacheCacheManager(jcache);
+			cacheManager.afterPropertiesSet();
+			final var cache1 = new JenkinsTreeCache();
+			ReflectionTestUtils.setField(cache1, "cacheManager", cacheManager);
+			final var cache2 = new JenkinsTreeCache();
+			ReflectionTestUtils.setField(cache2, "cacheManager", cacheManager);
+
+			// Serialized and loaded by another replica
+			cache1.put("service:build:jenkins:bpr", "", JobSnapshotTest.newSnapshot());
+			Assertions.assertEquals(103, cache2.get("service:build:jenkins:bpr", "", 60000).size());
+			Assertions.assertEquals("folder/main", cache2.getStale("service:build:jenkins:bpr", "").getId(2));
+
+			cache1.clear();
+			final var shared = cacheManager.getCache(JenkinsCacheConfig.TREES);
+			Assertions.assertNull(shared.get("service:build:jenkins:bpr|"));
+			Assertions.assertNull(shared.get("service:build:jenkins:bpr||loaded"));
+		} finally {
+			instance.shutdown();
+		}
+	}
+}
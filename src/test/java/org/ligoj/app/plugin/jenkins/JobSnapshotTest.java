@@ -0,0 +1,100 @@
+/*
+ * Licensed under MIT (https://github.com/ligoj/ligoj/blob/master/LICENSE)
+ */
+package org.ligoj.app.plugin.jenkins;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Test class of {@link JobSnapshot}
+ */
+class JobSnapshotTest {
+
+	static JobSnapshot newSnapshot() {
+		final var builder = new JobSnapshot.Builder();
+		final var root = builder.add(-1, null, null, null, "disabled", false, false, null);
+		final var folder = builder.add(root, "folder", "Folder", "Any description", "disabled", false, false, null);
+		builder.add(folder, "folder/main", "main", null, "blue", true, false, 1693000000000L);
+		for (var i = 0; i < 100; i++) {
+			builder.add(folder, "folder/PR-" + i, null, null, "red", false, true, (long) i);
+		}
+		return builder.build("service:build:jenkins:bpr");
+	}
+
+	@Test
+	void snapshot() {
+		final var snapshot = newSnapshot();
+		Assertions.assertEquals(103, snapshot.size());
+		Assertions.assertEquals("service:build:jenkins:bpr", snapshot.getNode());
+
+		Assertions.assertNull(snapshot.getId(0));
+		Assertions.assertNull(snapshot.getName(0));
+		Assertions.assertEquals(-1, snapshot.getParent(0));
+
+		Assertions.assertEquals("folder", snapshot.getId(1));
+		Assertions.assertEquals("Folder", snapshot.getName(1));
+		Assertions.assertEquals("Any description", snapshot.getDescription(1));
+		Assertions.assertEquals(0, snapshot.getParent(1));
+
+		final var main = snapshot.toJob(2);
+		Assertions.assertEquals("folder/main", main.getId());
+		Assertions.assertEquals("main", main.getName());
+		Assertions.assertNull(main.getDescription());
+		Assertions.assertEquals("blue", main.getStatus());
+		Assertions.assertTrue(main.isBuilding());
+		Assertions.assertFalse(main.isPullRequestBranch());
+		Assertions.assertEquals(1693000000000L, main.getLastBuild());
+		Assertions.assertEquals("service:build:jenkins:bpr", main.getNode());
+		Assertions.assertNull(main.getJobs());
+		Assertions.assertEquals(1, snapshot.getParent(2));
+
+		final var pr = snapshot.toJob(102);
+		Assertions.assertEquals("folder/PR-99", pr.getId());
+		Assertions.assertNull(pr.getName());
+		Assertions.assertEquals("red", pr.getStatus());
+		Assertions.assertFalse(pr.isBuilding());
+		Assertions.assertTrue(pr.isPullRequestBranch());
+		Assertions.assertEquals(99L, pr.getLastBuild());
+		Assertions.assertNull(snapshot.toJob(1).getLastBuild());
+	}
+
+	@Test
+	void getDepth() {
+		Assertions.assertEquals(3, newSnapshot().getDepth());
+		Assertions.assertEquals(0, new JobSnapshot.Builder().build("service:build:jenkins:bpr").getDepth());
+	}
+
+	@Test
+	void writeRead() throws IOException {
+		final var output = new ByteArrayOutputStream();
+		newSnapshot().write(output);
+		final var snapshot = JobSnapshot.read(new ByteArrayInputStream(output.toByteArray()));
+		Assertions.assertEquals(103, snapshot.size());
+		Assertions.assertEquals("service:build:jenkins:bpr", snapshot.getNode());
+		Assertions.assertNull(snapshot.getId(0));
+		Assertions.assertEquals("Folder", snapshot.getName(1));
+		final var main = snapshot.toJob(2);
+		Assertions.assertEquals("folder/main", main.getId());
+		Assertions.assertEquals("main", main.getName());
+		Assertions.assertTrue(main.isBuilding());
+		Assertions.assertEquals(1693000000000L, main.getLastBuild());
+		final var pr = snapshot.toJob(102);
+		Assertions.assertNull(pr.getName());
+		Assertions.assertTrue(pr.isPullRequestBranch());
+		Assertions.assertEquals(1, snapshot.getParent(102));
+	}
+
+	@Test
+	void readUnsupportedVersion() throws IOException {
+		final var output = new ByteArrayOutputStream();
+		newSnapshot().write(output);
+		final var bytes = output.toByteArray();
+		bytes[7] = 99;
+		Assertions.assertNull(JobSnapshot.read(new ByteArrayInputStream(bytes)));
+	}
+}
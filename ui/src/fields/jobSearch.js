@@ -11,6 +11,10 @@
  * prefix). The fetch is deferred until the user actually types: the backend
  * endpoint is path-shaped (`{node}/{criteria}`) so an empty criteria is not a
  * valid request — opening the menu without typing simply shows nothing.
+ *
+ * Each loader owns a search token sent with every query: the server cancels
+ * the superseded search of the same token, aborting its Jenkins request and
+ * parse instead of completing it for a response this loader would drop.
  */
 import { ref } from 'vue'
 import { useApi } from '@ligoj/host'
@@ -23,6 +27,7 @@ export function useJobSearch(urlFor) {
   // guard so only the latest in-flight search updates the list.
   let lastQuery = null
   let pending = null
+  const searchToken = Math.random().toString(36).slice(2)
 
   async function search(node, term) {
     const q = (term || '').trim()
@@ -37,7 +42,7 @@ export function useJobSearch(urlFor) {
     pending = token
     loading.value = true
     try {
-      const data = await api.get(urlFor(node, q), { silent: true })
+      const data = await api.get(`${urlFor(node, q)}?token=${searchToken}`, { silent: true })
       if (pending !== token) return
       const list = Array.isArray(data) ? data : (data?.data || [])
       items.value = list.map((j) => ({ id: j.id ?? j.name, name: j.name ?? j.id, description: j.description }))
@@ -7,6 +7,9 @@ export default {
   'service:build:jenkins:url': 'Jenkins base URL',
   'service:build:jenkins:user': 'User',
   'service:build:jenkins:api-token': 'API token',
+  'service:build:jenkins:webhook-secret': 'Webhook secret',
+  'service:build:jenkins:rate': 'Rate limit',
+  'service:build:jenkins:burst': 'Burst',
   'service:build:jenkins:job': 'Job',
   'service:build:jenkins:template-job': 'Template job',
   'service:build:jenkins:build': 'Build',
@@ -4,6 +4,9 @@ export default {
   'service:build:jenkins:url': 'URL de base Jenkins',
   'service:build:jenkins:user': 'Utilisateur',
   'service:build:jenkins:api-token': 'Jeton API',
+  'service:build:jenkins:webhook-secret': 'Secret des notifications',
+  'service:build:jenkins:rate': 'Limite de requêtes',
+  'service:build:jenkins:burst': 'Rafale',
   'service:build:jenkins:job': 'Tâche',
   'service:build:jenkins:template-job': 'Tâche modèle',
   'service:build:jenkins:build': 'Lancer',